@@ -2,8 +2,12 @@ package com.example.gateway;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.example.gateway.config.GatewayRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(GatewayRuntimeHints.class)
 public class ApiGatewayApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,19 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Admission control in front of the routes: each client (JWT subject, else client id, else remote address) may
+ * send {@code replenishRate} requests per second with bursts of up to {@code burstCapacity}, and each route accepts
+ * at most {@code maxInFlightPerRoute} concurrent requests. Excess requests are answered with 429 and 503.
+ */
+@ConfigurationProperties("gateway.admission")
+public record AdmissionControlProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("50") int replenishRate,
+        @DefaultValue("100") int burstCapacity,
+        @DefaultValue("256") int maxInFlightPerRoute,
+        @DefaultValue("100000") long maxTrackedClients
+) {
+}
@@ -0,0 +1,47 @@
+package com.example.gateway.config;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.gateway.filter.RouteTimingFilter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(RouteConnectionPoolProperties.class)
+public class GatewayHttpClientConfig {
+
+    /**
+     * Replaces the factory Spring Cloud Gateway would otherwise create with one that also sets up the per-route
+     * pools.
+     */
+    @Bean
+    public HttpClientFactory routeHttpClientFactory(HttpClientProperties httpClientProperties,
+                                                    ServerProperties serverProperties,
+                                                    HttpClientSslConfigurer sslConfigurer,
+                                                    List<HttpClientCustomizer> customizers,
+                                                    GatewayProperties gatewayProperties,
+                                                    RouteConnectionPoolProperties routePools) {
+        return new RouteHttpClientFactory(httpClientProperties, serverProperties, sslConfigurer, customizers,
+                gatewayProperties, routePools);
+    }
+
+    @Bean
+    public HttpClientCustomizer routeTimingHttpClientCustomizer() {
+        return RouteTimingFilter::instrument;
+    }
+
+    @Bean
+    public RouteTimingFilter.ArrivalFilter routeArrivalFilter(MeterRegistry meterRegistry) {
+        return new RouteTimingFilter.ArrivalFilter(meterRegistry.config().clock());
+    }
+}
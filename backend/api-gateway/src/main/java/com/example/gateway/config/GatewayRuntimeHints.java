@@ -0,0 +1,45 @@
+package com.example.gateway.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
+
+import com.example.common.security.JwksProperties;
+import com.example.common.tracing.TailSamplingProperties;
+
+/**
+ * Native-image hints Spring cannot infer for the gateway. Spring Cloud Gateway registers its route predicate and
+ * filter configuration itself, and the Nimbus JWT decoder parses without reflection; what remains are Caffeine's
+ * generated caches, which it instantiates by class name from the builder's settings. The reachability metadata
+ * repository misses some of them (expire-after-access), so every one the gateway builds is listed here:
+ * <ul>
+ * <li>{@code SSMS}/{@code PSMS}: maximum size, for the role lists of {@code KeycloakRealmRoles} in common</li>
+ * <li>{@code SSMSW}/{@code PSWMS}: plus expire-after-write, for signed internal identities</li>
+ * <li>{@code SSMSA}/{@code PSAMS}: plus expire-after-access, for the per-client rate limiter</li>
+ * </ul>
+ * Beyond those, {@link JwksProperties} and {@link TailSamplingProperties} are bound through a {@code Binder} rather
+ * than as {@code @ConfigurationProperties}, so their binding hints are registered here too.
+ */
+public class GatewayRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String[] CAFFEINE_CACHES = {"SSMS", "SSMSW", "SSMSA"};
+    static final String[] CAFFEINE_NODES = {"PSMS", "PSWMS", "PSAMS"};
+
+    private static final String CAFFEINE_PACKAGE = "com.github.benmanes.caffeine.cache.";
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String name : CAFFEINE_CACHES) {
+            hints.reflection().registerType(TypeReference.of(CAFFEINE_PACKAGE + name),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        for (String name : CAFFEINE_NODES) {
+            hints.reflection().registerType(TypeReference.of(CAFFEINE_PACKAGE + name),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        BindableRuntimeHintsRegistrar.forTypes(JwksProperties.class, TailSamplingProperties.class)
+                .registerHints(hints, classLoader);
+    }
+}
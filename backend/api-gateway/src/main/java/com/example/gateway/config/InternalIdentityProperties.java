@@ -0,0 +1,16 @@
+package com.example.gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+/**
+ * Shared secret for the HMAC-signed {@code X-Internal-Identity} header. Downstream services configured with the
+ * same secret authenticate from that header instead of re-validating the bearer token. Unset disables the header.
+ */
+@ConfigurationProperties("gateway.internal-identity")
+public record InternalIdentityProperties(String secret) {
+
+    public boolean enabled() {
+        return StringUtils.hasText(secret);
+    }
+}
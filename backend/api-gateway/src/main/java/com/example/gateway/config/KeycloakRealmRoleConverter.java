@@ -0,0 +1,28 @@
+package com.example.gateway.config;
+
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.common.security.KeycloakRealmRoles;
+import com.example.common.security.KeycloakRealmRoles.RealmRoles;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive adapter over {@link KeycloakRealmRoles}: authenticates with the realm roles as authorities and carries
+ * the precomputed {@code X-User-Roles} header value alongside them.
+ */
+public class KeycloakRealmRoleConverter implements Converter<Jwt, Mono<AbstractAuthenticationToken>> {
+
+    private final KeycloakRealmRoles realmRoles = new KeycloakRealmRoles();
+
+    @Override
+    public Mono<AbstractAuthenticationToken> convert(Jwt jwt) {
+        return Mono.just(new RealmRolesAuthenticationToken(jwt, realmRoles(jwt)));
+    }
+
+    RealmRoles realmRoles(Jwt jwt) {
+        return realmRoles.realmRoles(jwt);
+    }
+}
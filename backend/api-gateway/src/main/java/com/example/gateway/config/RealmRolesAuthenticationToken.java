@@ -0,0 +1,24 @@
+package com.example.gateway.config;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import com.example.common.security.KeycloakRealmRoles.RealmRoles;
+
+/**
+ * A {@link JwtAuthenticationToken} whose authorities come from the Keycloak realm roles, carrying the
+ * precomputed {@code X-User-Roles} header value so the relay filter does not rebuild it per request.
+ */
+public class RealmRolesAuthenticationToken extends JwtAuthenticationToken {
+
+    private final String rolesHeader;
+
+    public RealmRolesAuthenticationToken(Jwt jwt, RealmRoles realmRoles) {
+        super(jwt, realmRoles.authorities(), jwt.getSubject());
+        this.rolesHeader = realmRoles.header();
+    }
+
+    public String getRolesHeader() {
+        return rolesHeader;
+    }
+}
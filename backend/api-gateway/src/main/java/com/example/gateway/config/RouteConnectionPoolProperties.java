@@ -0,0 +1,28 @@
+package com.example.gateway.config;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Connection pools of single routes, keyed by route id. Each route's upstream host gets a pool of at most
+ * {@code maxConnections}; up to {@code pendingAcquireMaxCount} requests (-1 for no limit) wait at most
+ * {@code pendingAcquireTimeout} for one of its connections. Idle and life time default to the
+ * {@code spring.cloud.gateway.httpclient.pool} settings, which still apply to every other upstream.
+ */
+@ConfigurationProperties("gateway.http-client")
+public record RouteConnectionPoolProperties(
+        @DefaultValue Map<String, Pool> routes
+) {
+
+    public record Pool(
+            @DefaultValue("500") int maxConnections,
+            @DefaultValue("-1") int pendingAcquireMaxCount,
+            @DefaultValue("45s") Duration pendingAcquireTimeout,
+            Duration maxIdleTime,
+            Duration maxLifeTime
+    ) {
+    }
+}
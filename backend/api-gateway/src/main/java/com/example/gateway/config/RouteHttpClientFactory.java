@@ -0,0 +1,93 @@
+package com.example.gateway.config;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.AddressUtils;
+
+/**
+ * The gateway's {@link HttpClientFactory} with the pools of {@link RouteConnectionPoolProperties} set up for their
+ * routes' upstream hosts. Reactor Netty keeps one pool per remote host, so a route's pool is its upstream's: two
+ * configured routes to the same upstream are rejected, and routes without settings share the pool of a configured
+ * route to their upstream.
+ */
+public class RouteHttpClientFactory extends HttpClientFactory {
+
+    private final GatewayProperties gatewayProperties;
+    private final RouteConnectionPoolProperties routePools;
+
+    public RouteHttpClientFactory(HttpClientProperties properties, ServerProperties serverProperties,
+                                  HttpClientSslConfigurer sslConfigurer, List<HttpClientCustomizer> customizers,
+                                  GatewayProperties gatewayProperties, RouteConnectionPoolProperties routePools) {
+        super(properties, serverProperties, sslConfigurer, customizers);
+        this.gatewayProperties = gatewayProperties;
+        this.routePools = routePools;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+        ConnectionProvider provider = super.buildConnectionProvider(properties);
+        if (routePools.routes().isEmpty() || properties.getPool().getType() == HttpClientProperties.Pool.PoolType.DISABLED) {
+            return provider;
+        }
+        ConnectionProvider.Builder builder = provider.mutate();
+        provider.dispose();
+        HttpClientProperties.Pool defaults = properties.getPool();
+        Map<InetSocketAddress, String> routeByUpstream = new HashMap<>();
+        routePools.routes().forEach((routeId, pool) -> {
+            InetSocketAddress upstream = upstream(routeId);
+            String other = routeByUpstream.putIfAbsent(upstream, routeId);
+            if (other != null) {
+                throw new IllegalStateException("Routes " + other + " and " + routeId + " share the upstream "
+                        + upstream + " and so its connection pool; configure only one of them");
+            }
+            // a host's pool starts from Reactor Netty's defaults, not from the builder's
+            builder.forRemoteHost(upstream, spec -> {
+                spec.maxConnections(pool.maxConnections())
+                        .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+                        .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+                        .evictInBackground(defaults.getEvictionInterval())
+                        .metrics(defaults.isMetrics());
+                if (pool.maxIdleTime() != null || defaults.getMaxIdleTime() != null) {
+                    spec.maxIdleTime(pool.maxIdleTime() != null ? pool.maxIdleTime() : defaults.getMaxIdleTime());
+                }
+                if (pool.maxLifeTime() != null || defaults.getMaxLifeTime() != null) {
+                    spec.maxLifeTime(pool.maxLifeTime() != null ? pool.maxLifeTime() : defaults.getMaxLifeTime());
+                }
+            });
+        });
+        return builder.build();
+    }
+
+    private InetSocketAddress upstream(String routeId) {
+        URI uri = gatewayProperties.getRoutes().stream()
+                .filter(route -> route.getId().equals(routeId))
+                .map(RouteDefinition::getUri)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        "gateway.http-client.routes." + routeId + " names no configured route"));
+        int port = uri.getPort();
+        if (port == -1) {
+            port = switch (uri.getScheme()) {
+                case "http" -> 80;
+                case "https" -> 443;
+                default -> throw new IllegalStateException(
+                        "Route " + routeId + " has no fixed upstream host to pool connections to: " + uri);
+            };
+        }
+        // the same address Reactor Netty derives from a request URI, so the pool is found by it
+        return AddressUtils.createUnresolved(uri.getHost(), port);
+    }
+}
@@ -1,14 +1,34 @@
 package com.example.gateway.config;
 
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.function.Function;
+
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
+import org.springframework.core.env.Environment;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 
+import com.example.common.security.JwksKeyStore;
+import com.example.common.security.JwksProperties;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+
+import reactor.core.publisher.Mono;
+
 @Configuration
 @EnableWebFluxSecurity
+@EnableConfigurationProperties(InternalIdentityProperties.class)
 public class SecurityConfig {
 
     @Bean
@@ -21,9 +41,43 @@ public class SecurityConfig {
                         .anyExchange().permitAll()
                 )
                 .oauth2ResourceServer(resourceServer -> resourceServer
-                        .jwt(Customizer.withDefaults())
+                        .jwt(jwt -> jwt.jwtAuthenticationConverter(new KeycloakRealmRoleConverter()))
                 )
                 .build();
     }
-}
 
+    /**
+     * The key store's refresh policy, bound here because the record is shared with the user-service. Its binding
+     * hints for the native image are in {@link GatewayRuntimeHints}.
+     */
+    @Bean
+    public JwksProperties jwksProperties(Environment environment) {
+        return Binder.get(environment).bindOrCreate("gateway.jwks", JwksProperties.class);
+    }
+
+    @Bean
+    public JwksKeyStore jwksKeyStore(OAuth2ResourceServerProperties resourceServerProperties,
+                                     JwksProperties jwksProperties) throws MalformedURLException {
+        URL jwkSetUrl = URI.create(resourceServerProperties.getJwt().getJwkSetUri()).toURL();
+        return new JwksKeyStore(jwkSetUrl, jwksProperties);
+    }
+
+    /**
+     * Replaces the decoder Spring Boot would otherwise create, which fetches the JWKS on the request path, with one
+     * verifying against the prefetched {@link JwksKeyStore}.
+     */
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwksKeyStore jwksKeyStore,
+                                         OAuth2ResourceServerProperties resourceServerProperties) {
+        OAuth2ResourceServerProperties.Jwt jwt = resourceServerProperties.getJwt();
+        // resolves from memory, and only waits without blocking when the store has to fetch
+        NimbusReactiveJwtDecoder decoder = NimbusReactiveJwtDecoder.withJwkSource(signedJwt -> Mono.fromFuture(
+                        () -> jwksKeyStore.select(new JWKSelector(JWKMatcher.forJWSHeader(signedJwt.getHeader()))))
+                .flatMapIterable(Function.identity()))
+                // the JWK-source builder verifies a single algorithm, RS256 unless configured otherwise
+                .jwsAlgorithm(SignatureAlgorithm.from(jwt.getJwsAlgorithms().get(0)))
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri()));
+        return decoder;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.gateway.filter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+/**
+ * In-memory token bucket per client, implemented as the generic cell rate algorithm: each client's whole bucket is
+ * one {@link AtomicLong} holding the time at which its bucket would be full again, updated with a CAS. There are no
+ * locks, and clients never contend with each other. Idle clients are evicted once their bucket has refilled.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final Ticker ticker;
+    private final Cache<String, AtomicLong> fullAtByClient;
+
+    public ClientRateLimiter(int replenishRate, int burstCapacity, long maxClients) {
+        this(replenishRate, burstCapacity, maxClients, Ticker.systemTicker());
+    }
+
+    ClientRateLimiter(int replenishRate, int burstCapacity, long maxClients, Ticker ticker) {
+        if (replenishRate <= 0 || burstCapacity <= 0) {
+            throw new IllegalArgumentException("Replenish rate and burst capacity must be positive");
+        }
+        this.emissionIntervalNanos = TimeUnit.SECONDS.toNanos(1) / replenishRate;
+        this.burstToleranceNanos = emissionIntervalNanos * burstCapacity;
+        this.ticker = ticker;
+        this.fullAtByClient = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(burstToleranceNanos))
+                .ticker(ticker)
+                .build();
+    }
+
+    /**
+     * Takes one token from the client's bucket.
+     *
+     * @return {@link Duration#ZERO} when admitted, otherwise how long until a token is available
+     */
+    public Duration tryAcquire(String client) {
+        AtomicLong fullAt = fullAtByClient.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = ticker.read();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long wait = next - now - burstToleranceNanos;
+            if (wait > 0) {
+                return Duration.ofNanos(wait);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+}
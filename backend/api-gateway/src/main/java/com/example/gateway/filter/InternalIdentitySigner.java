@@ -0,0 +1,39 @@
+package com.example.gateway.filter;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.common.security.InternalIdentityCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Builds the {@code X-Internal-Identity} header value for an already validated JWT, in the format of
+ * {@link InternalIdentityCodec}: its subject, expiry and realm roles. The identity expires with the token.
+ */
+public class InternalIdentitySigner {
+
+    public static final String HEADER = InternalIdentityCodec.HEADER;
+
+    private final InternalIdentityCodec codec;
+
+    public InternalIdentitySigner(String secret, ObjectMapper objectMapper) {
+        this.codec = new InternalIdentityCodec(secret, objectMapper);
+    }
+
+    /**
+     * @param jwt a validated token with an {@code exp} claim
+     */
+    public String sign(Jwt jwt) {
+        return codec.encode(jwt.getSubject(), jwt.getExpiresAt(), realmRoles(jwt));
+    }
+
+    private static List<?> realmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+        if (realmAccess != null && realmAccess.get("roles") instanceof List<?> roles) {
+            return roles;
+        }
+        return List.of();
+    }
+}
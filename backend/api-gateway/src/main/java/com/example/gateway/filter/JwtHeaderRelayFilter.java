@@ -1,5 +1,7 @@
 package com.example.gateway.filter;
 
+import java.security.Principal;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.stream.Collectors;
 
@@ -9,46 +11,102 @@ import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.example.gateway.config.InternalIdentityProperties;
+import com.example.gateway.config.RealmRolesAuthenticationToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import reactor.core.publisher.Mono;
 
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 
 /**
- * Extracts JWT claims and roles, forwarding them as headers to downstream services.
+ * Extracts JWT claims and roles, forwarding them as headers to downstream services. {@code X-User-Roles} carries
+ * the ROLE_* authorities precomputed by {@link com.example.gateway.config.KeycloakRealmRoleConverter}. With an
+ * internal identity secret configured it also adds the signed {@link InternalIdentitySigner#HEADER} header, signed
+ * once per token and reused while the token is presented again.
  */
 @Component
 public class JwtHeaderRelayFilter implements GlobalFilter, Ordered {
 
     private static final String USER_ID_HEADER = "X-User-Id";
     private static final String USER_ROLES_HEADER = "X-User-Roles";
+    private static final String[] RELAYED_HEADERS = {USER_ID_HEADER, USER_ROLES_HEADER};
+    private static final String[] SIGNED_RELAYED_HEADERS =
+            {USER_ID_HEADER, USER_ROLES_HEADER, InternalIdentitySigner.HEADER};
+
+    static final int MAX_CACHED_IDENTITIES = 10_000;
+    private static final Duration IDENTITY_CACHE_TTL = Duration.ofMinutes(5);
+
+    private final InternalIdentitySigner identitySigner;
+    private final Cache<String, String> identityBySignature;
+
+    public JwtHeaderRelayFilter(InternalIdentityProperties identityProperties, ObjectMapper objectMapper) {
+        this.identitySigner = identityProperties.enabled()
+                ? new InternalIdentitySigner(identityProperties.secret(), objectMapper)
+                : null;
+        this.identityBySignature = identitySigner != null
+                ? Caffeine.newBuilder()
+                        .maximumSize(MAX_CACHED_IDENTITIES)
+                        .expireAfterWrite(IDENTITY_CACHE_TTL)
+                        .build()
+                : null;
+    }
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, org.springframework.cloud.gateway.filter.GatewayFilterChain chain) {
+        // resolve the exchange to forward first, so the chain is subscribed exactly once on every path
         return exchange.getPrincipal()
-                .cast(AbstractAuthenticationToken.class)
-                .flatMap(auth -> {
-                    Object principal = auth.getPrincipal();
-                    if (principal instanceof Jwt jwt) {
-                        ServerWebExchange mutated = exchange.mutate()
-                                .request(builder -> builder.headers(httpHeaders -> {
-                                    httpHeaders.set(USER_ID_HEADER, jwt.getSubject());
-                                    httpHeaders.set(USER_ROLES_HEADER, serializeAuthorities(auth.getAuthorities()));
-                                }))
-                                .build();
-                        return chain.filter(mutated);
-                    }
-                    return chain.filter(exchange);
-                })
-                .switchIfEmpty(chain.filter(exchange));
-    }
-
-    private String serializeAuthorities(Collection<? extends GrantedAuthority> authorities) {
+                .map(principal -> relay(exchange, principal))
+                .defaultIfEmpty(exchange)
+                .flatMap(chain::filter);
+    }
+
+    private ServerWebExchange relay(ServerWebExchange exchange, Principal principal) {
+        if (!(principal instanceof AbstractAuthenticationToken auth) || !(auth.getPrincipal() instanceof Jwt jwt)) {
+            return exchange;
+        }
+        String subject = jwt.getSubject();
+        String roles = rolesHeader(auth);
+        String identity = internalIdentity(jwt);
+        // laid over the request's headers, which Spring Security's exchange firewall makes read-only
+        RelayedRequest request = identity != null
+                ? new RelayedRequest(exchange.getRequest(), SIGNED_RELAYED_HEADERS, new String[] {subject, roles, identity})
+                : new RelayedRequest(exchange.getRequest(), RELAYED_HEADERS, new String[] {subject, roles});
+        return exchange.mutate()
+                .request(request)
+                .build();
+    }
+
+    private String internalIdentity(Jwt jwt) {
+        if (identitySigner == null || jwt.getExpiresAt() == null) {
+            return null;
+        }
+        return identityBySignature.get(signature(jwt.getTokenValue()), signature -> identitySigner.sign(jwt));
+    }
+
+    private String rolesHeader(AbstractAuthenticationToken auth) {
+        if (auth instanceof RealmRolesAuthenticationToken realmRoles) {
+            return realmRoles.getRolesHeader();
+        }
+        return serializeAuthorities(auth.getAuthorities());
+    }
+
+    String serializeAuthorities(Collection<? extends GrantedAuthority> authorities) {
         return authorities.stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
     }
 
+    /**
+     * The signature segment identifies a validated token without keeping a usable credential as the cache key.
+     */
+    private static String signature(String tokenValue) {
+        return tokenValue.substring(tokenValue.lastIndexOf('.') + 1);
+    }
+
     @Override
     public int getOrder() {
         return -20;
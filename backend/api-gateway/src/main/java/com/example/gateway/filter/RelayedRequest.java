@@ -0,0 +1,146 @@
+package com.example.gateway.filter;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * A request whose headers are the delegate's with a few relayed headers laid over them, replacing any value the
+ * client sent under the same name. Nothing is copied, and the delegate's headers are never written to: behind
+ * Spring Security's exchange firewall they are read-only.
+ */
+final class RelayedRequest extends ServerHttpRequestDecorator {
+
+    private final HttpHeaders headers;
+
+    /**
+     * @param names  the relayed header names
+     * @param values their values, at the same index
+     */
+    RelayedRequest(ServerHttpRequest delegate, String[] names, String[] values) {
+        super(delegate);
+        this.headers = new HttpHeaders(new OverlaidHeaders(delegate.getHeaders(), names, values));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Read-only view of {@code delegate} with {@code names} overlaid, matched case-insensitively like HTTP headers.
+     */
+    private static final class OverlaidHeaders extends AbstractMap<String, List<String>>
+            implements MultiValueMap<String, String> {
+
+        private final HttpHeaders delegate;
+        private final String[] names;
+        private final String[] values;
+
+        OverlaidHeaders(HttpHeaders delegate, String[] names, String[] values) {
+            this.delegate = delegate;
+            this.names = names;
+            this.values = values;
+        }
+
+        private int indexOf(Object name) {
+            if (name instanceof String header) {
+                for (int i = 0; i < names.length; i++) {
+                    if (names[i].equalsIgnoreCase(header)) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String getFirst(String name) {
+            int index = indexOf(name);
+            return index >= 0 ? values[index] : delegate.getFirst(name);
+        }
+
+        @Override
+        public List<String> get(Object name) {
+            int index = indexOf(name);
+            return index >= 0 ? List.of(values[index]) : delegate.get(name);
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return indexOf(name) >= 0 || delegate.containsKey(name);
+        }
+
+        @Override
+        public int size() {
+            int size = delegate.size();
+            for (String name : names) {
+                if (!delegate.containsKey(name)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, List<String>>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, List<String>>> iterator() {
+                    return Stream.concat(
+                                    delegate.entrySet().stream().filter(header -> indexOf(header.getKey()) < 0),
+                                    IntStream.range(0, names.length).mapToObj(i -> Map.entry(names[i], List.of(values[i]))))
+                            .iterator();
+                }
+
+                @Override
+                public int size() {
+                    return OverlaidHeaders.this.size();
+                }
+            };
+        }
+
+        @Override
+        public Map<String, String> toSingleValueMap() {
+            Map<String, String> singleValues = new LinkedHashMap<>();
+            entrySet().forEach(header -> singleValues.put(header.getKey(), header.getValue().get(0)));
+            return singleValues;
+        }
+
+        @Override
+        public void add(String name, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addAll(String name, List<? extends String> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void addAll(MultiValueMap<String, String> values) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(String name, String value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setAll(Map<String, String> values) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
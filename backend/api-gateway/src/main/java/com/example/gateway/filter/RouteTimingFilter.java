@@ -0,0 +1,212 @@
+package com.example.gateway.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Splits the gateway's part of a routed request from the upstream's, per route. Runs last before the
+ * {@link NettyRoutingFilter}, and relies on {@link ArrivalFilter} to stamp the request's arrival and on
+ * {@link #instrument(HttpClient)} to report when the request goes out on a pooled connection.
+ * <p>
+ * Meters, all tagged {@code route}: {@value #FILTER_CHAIN_METER}, arrival to upstream dispatch, so JWT validation,
+ * admission control, {@link JwtHeaderRelayFilter} and the route filters; {@value #ACQUIRE_METER}, dispatch to a
+ * pooled connection, including connecting a new one; {@value #FIRST_BYTE_METER}, sending the request to the
+ * upstream's response headers; and {@value #PENDING_METER}, the requests waiting for a connection. The timers are
+ * also tagged {@code outcome} ({@code success}, {@code error} or {@code cancelled}). Requests rejected before
+ * routing record none of them.
+ */
+@Component
+public class RouteTimingFilter implements GlobalFilter, Ordered {
+
+    static final String FILTER_CHAIN_METER = "gateway.route.filter-chain";
+    static final String ACQUIRE_METER = "gateway.route.upstream.acquire";
+    static final String FIRST_BYTE_METER = "gateway.route.upstream.first-byte";
+    static final String PENDING_METER = "gateway.route.upstream.pending";
+
+    static final String ARRIVAL_ATTR = RouteTimingFilter.class.getName() + ".arrival";
+
+    private static final String NO_ROUTE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final ConcurrentMap<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+    public RouteTimingFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.clock = meterRegistry.config().clock();
+    }
+
+    /**
+     * Reports each request the client sends to the {@link RouteTimingFilter} that dispatched it.
+     */
+    public static HttpClient instrument(HttpClient httpClient) {
+        return httpClient.doOnRequest((request, connection) -> requestSent(request.currentContextView()));
+    }
+
+    static void requestSent(ContextView context) {
+        context.<Upstream>getOrEmpty(Upstream.class).ifPresent(Upstream::sent);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        RouteMeters meters = route(exchange);
+        long dispatched = clock.monotonicTime();
+        Long arrival = exchange.getAttribute(ARRIVAL_ATTR);
+        if (arrival != null) {
+            meters.filterChain.record(dispatched - arrival, TimeUnit.NANOSECONDS);
+        }
+        Upstream upstream = new Upstream(meters, clock, dispatched);
+        // recorded before the outcome travels on, which may be on the upstream connection's event loop
+        return chain.filter(exchange)
+                .doOnSuccess(done -> upstream.finished(SignalType.ON_COMPLETE))
+                .doOnError(error -> upstream.finished(SignalType.ON_ERROR))
+                .doOnCancel(() -> upstream.finished(SignalType.CANCEL))
+                .contextWrite(Context.of(Upstream.class, upstream));
+    }
+
+    private RouteMeters route(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : NO_ROUTE;
+        RouteMeters meters = routes.get(routeId);
+        return meters != null ? meters : routes.computeIfAbsent(routeId, this::newRouteMeters);
+    }
+
+    private RouteMeters newRouteMeters(String routeId) {
+        AtomicInteger pending = new AtomicInteger();
+        Gauge.builder(PENDING_METER, pending, AtomicInteger::get)
+                .description("Requests waiting for a connection to the route's upstream")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteMeters(
+                Timer.builder(FILTER_CHAIN_METER)
+                        .description("Time from a request's arrival to its dispatch to the upstream")
+                        .tag("route", routeId)
+                        .register(meterRegistry),
+                outcomes(ACQUIRE_METER, "Time to acquire a connection to the route's upstream", routeId),
+                outcomes(FIRST_BYTE_METER, "Time from sending a request to the upstream's response headers", routeId),
+                pending);
+    }
+
+    private Outcomes outcomes(String name, String description, String routeId) {
+        return new Outcomes(
+                timer(name, description, routeId, "success"),
+                timer(name, description, routeId, "error"),
+                timer(name, description, routeId, "cancelled"));
+    }
+
+    private Timer timer(String name, String description, String routeId, String outcome) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("route", routeId)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+
+    /**
+     * Stamps each request's arrival ahead of Spring Security's filters.
+     */
+    public static class ArrivalFilter implements WebFilter, Ordered {
+
+        private final Clock clock;
+
+        public ArrivalFilter(Clock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+            exchange.getAttributes().put(ARRIVAL_ATTR, clock.monotonicTime());
+            return chain.filter(exchange);
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    private record RouteMeters(Timer filterChain, Outcomes acquire, Outcomes firstByte, AtomicInteger pending) {
+    }
+
+    private record Outcomes(Timer success, Timer error, Timer cancelled) {
+
+        Timer of(SignalType signal) {
+            return switch (signal) {
+                case ON_ERROR -> error;
+                case CANCEL -> cancelled;
+                default -> success;
+            };
+        }
+    }
+
+    /**
+     * One dispatch to the upstream. The request is sent on an event loop while the dispatching chain may finish
+     * anywhere, so whichever comes first settles the acquisition.
+     */
+    private static final class Upstream {
+
+        private static final long NOT_SENT = Long.MIN_VALUE;
+
+        private final RouteMeters meters;
+        private final Clock clock;
+        private final long dispatched;
+        private final AtomicLong sent = new AtomicLong(NOT_SENT);
+
+        Upstream(RouteMeters meters, Clock clock, long dispatched) {
+            this.meters = meters;
+            this.clock = clock;
+            this.dispatched = dispatched;
+            meters.pending.incrementAndGet();
+        }
+
+        void sent() {
+            long now = clock.monotonicTime();
+            if (sent.compareAndSet(NOT_SENT, now)) {
+                meters.pending.decrementAndGet();
+                meters.acquire.success.record(now - dispatched, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        void finished(SignalType signal) {
+            long now = clock.monotonicTime();
+            if (sent.compareAndSet(NOT_SENT, now)) {
+                meters.pending.decrementAndGet();
+                // a route served without a pooled connection never waited for one
+                if (signal == SignalType.ON_ERROR || signal == SignalType.CANCEL) {
+                    meters.acquire.of(signal).record(now - dispatched, TimeUnit.NANOSECONDS);
+                }
+                return;
+            }
+            meters.firstByte.of(signal).record(now - sent.get(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import com.example.common.security.JwksProperties;
+import com.example.common.tracing.TailSamplingProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Gateway Runtime Hints Tests")
+class GatewayRuntimeHintsTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new GatewayRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Should cover the cache classes Caffeine picks for the gateway's caches")
+    void shouldCoverGatewayCaches() {
+        // Given: built the way the role converter, the identity cache and the rate limiter build theirs
+        Stream<Object> caches = Stream.of(
+                Caffeine.newBuilder().maximumSize(10).build().asMap(),
+                Caffeine.newBuilder().maximumSize(10).expireAfterWrite(Duration.ofMinutes(5)).build().asMap(),
+                Caffeine.newBuilder().maximumSize(10).expireAfterAccess(Duration.ofSeconds(1)).build().asMap());
+
+        // Then
+        caches.forEach(cache -> assertThat(RuntimeHintsPredicates.reflection().onType(cache.getClass())
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                .as(cache.getClass().getName())
+                .accepts(hints));
+    }
+
+    @Test
+    @DisplayName("Should only name classes that exist in this Caffeine version")
+    void shouldNameExistingClasses() {
+        // When / Then
+        Stream.concat(Stream.of(GatewayRuntimeHints.CAFFEINE_CACHES), Stream.of(GatewayRuntimeHints.CAFFEINE_NODES))
+                .map(name -> "com.github.benmanes.caffeine.cache." + name)
+                .forEach(name -> assertThat(ClassUtils.isPresent(name, getClass().getClassLoader())).as(name).isTrue());
+    }
+
+    @Test
+    @DisplayName("Should let the shared properties records be bound")
+    void shouldCoverSharedPropertiesBinding() {
+        // Then: a record is bound through its canonical constructor
+        Stream.of(JwksProperties.class, TailSamplingProperties.class)
+                .forEach(type -> assertThat(RuntimeHintsPredicates.reflection()
+                        .onConstructor(type.getDeclaredConstructors()[0])
+                        .invoke())
+                        .as(type.getName())
+                        .accepts(hints));
+    }
+}
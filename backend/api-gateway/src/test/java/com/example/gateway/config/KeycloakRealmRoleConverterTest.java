@@ -0,0 +1,84 @@
+package com.example.gateway.config;
+
+import com.example.common.security.KeycloakRealmRoles.RealmRoles;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("KeycloakRealmRoleConverter Tests")
+class KeycloakRealmRoleConverterTest {
+
+    private KeycloakRealmRoleConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new KeycloakRealmRoleConverter();
+    }
+
+    @Test
+    @DisplayName("Should authenticate with ROLE_ authorities and a precomputed roles header")
+    void shouldConvertRealmRolesToAuthentication() {
+        Jwt jwt = jwt(Map.of("roles", List.of("user", "Admin", 42)));
+
+        StepVerifier.create(converter.convert(jwt))
+                .assertNext(authentication -> {
+                    assertThat(authentication).isInstanceOf(RealmRolesAuthenticationToken.class);
+                    assertThat(authentication.getName()).isEqualTo("test-subject");
+                    assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                            .containsExactly("ROLE_USER", "ROLE_ADMIN");
+                    assertThat(((RealmRolesAuthenticationToken) authentication).getRolesHeader())
+                            .isEqualTo("ROLE_USER,ROLE_ADMIN");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    @DisplayName("Should return no authorities and an empty header without realm roles")
+    void shouldReturnEmptyWithoutRealmRoles() {
+        assertThat(converter.realmRoles(jwt(Map.of())).authorities()).isEmpty();
+        assertThat(converter.realmRoles(jwt(Map.of("roles", "user"))).header()).isEmpty();
+        AbstractAuthenticationToken authentication = converter
+                .convert(Jwt.withTokenValue("token").header("alg", "RS256").claim("sub", "s").build())
+                .block();
+        assertThat(authentication.getAuthorities()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reuse the cached roles for a repeated role list")
+    void shouldReuseRealmRolesForRepeatedRoles() {
+        RealmRoles first = converter.realmRoles(jwt(Map.of("roles", List.of("user", "admin"))));
+        RealmRoles second =
+                converter.realmRoles(jwt(Map.of("roles", new ArrayList<>(List.of("user", "admin")))));
+
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    @DisplayName("Should not be affected by later changes to the claim list")
+    void shouldCopyRoleListUsedAsCacheKey() {
+        List<Object> roles = new ArrayList<>(List.of("user"));
+        converter.realmRoles(jwt(Map.of("roles", roles)));
+        roles.add("admin");
+
+        assertThat(converter.realmRoles(jwt(Map.of("roles", List.of("user")))).header()).isEqualTo("ROLE_USER");
+        assertThat(converter.realmRoles(jwt(Map.of("roles", roles))).header()).isEqualTo("ROLE_USER,ROLE_ADMIN");
+    }
+
+    private static Jwt jwt(Map<String, Object> realmAccess) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-subject")
+                .claim("realm_access", realmAccess)
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.gateway.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.GatewayProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.AddressUtils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RouteHttpClientFactory Tests")
+class RouteHttpClientFactoryTest {
+
+    private static final RouteConnectionPoolProperties.Pool POOL =
+            new RouteConnectionPoolProperties.Pool(8, -1, Duration.ofSeconds(5), null, null);
+
+    @Test
+    @DisplayName("Should give a configured route's upstream host its own pool size")
+    void shouldSizeRoutePool() throws Exception {
+        // Given
+        RouteHttpClientFactory factory = factory(Map.of("user-service", POOL),
+                route("user-service", "http://user-service:8080"), route("other", "http://other"));
+
+        // When
+        ConnectionProvider provider = connectionProvider(factory);
+
+        // Then
+        assertThat(provider.maxConnectionsPerHost())
+                .containsEntry(AddressUtils.createUnresolved("user-service", 8080), 8)
+                .doesNotContainKey(AddressUtils.createUnresolved("other", 80));
+        provider.dispose();
+    }
+
+    @Test
+    @DisplayName("Should reject pool settings for a route that does not exist")
+    void shouldRejectUnknownRoute() {
+        // Given
+        RouteHttpClientFactory factory = factory(Map.of("missing", POOL), route("user-service", "http://user-service:8080"));
+
+        // When / Then
+        assertThatThrownBy(() -> connectionProvider(factory))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("gateway.http-client.routes.missing");
+    }
+
+    @Test
+    @DisplayName("Should reject two configured routes to the same upstream")
+    void shouldRejectSharedUpstream() {
+        // Given
+        RouteHttpClientFactory factory = factory(Map.of("users", POOL, "users-admin", POOL),
+                route("users", "http://user-service:8080"), route("users-admin", "http://user-service:8080"));
+
+        // When / Then
+        assertThatThrownBy(() -> connectionProvider(factory))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("share the upstream");
+    }
+
+    private static ConnectionProvider connectionProvider(RouteHttpClientFactory factory) throws Exception {
+        HttpClient httpClient = factory.getObject();
+        return httpClient.configuration().connectionProvider();
+    }
+
+    private static RouteHttpClientFactory factory(Map<String, RouteConnectionPoolProperties.Pool> pools,
+                                                  RouteDefinition... routes) {
+        HttpClientProperties httpClientProperties = new HttpClientProperties();
+        ServerProperties serverProperties = new ServerProperties();
+        GatewayProperties gatewayProperties = new GatewayProperties();
+        gatewayProperties.setRoutes(List.of(routes));
+        RouteHttpClientFactory factory = new RouteHttpClientFactory(httpClientProperties, serverProperties,
+                new HttpClientSslConfigurer(httpClientProperties.getSsl(), serverProperties) {
+                }, List.of(), gatewayProperties, new RouteConnectionPoolProperties(pools));
+        factory.setSingleton(false);
+        return factory;
+    }
+
+    private static RouteDefinition route(String id, String uri) {
+        RouteDefinition route = new RouteDefinition();
+        route.setId(id);
+        route.setUri(URI.create(uri));
+        return route;
+    }
+}
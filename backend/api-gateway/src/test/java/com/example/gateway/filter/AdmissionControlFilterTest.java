@@ -0,0 +1,118 @@
+package com.example.gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final AtomicInteger forwarded = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+
+    private AdmissionControlFilter filter;
+    private GatewayFilterChain chain;
+
+    @BeforeEach
+    void setUp() {
+        filter = new AdmissionControlFilter(new ClientRateLimiter(1, 2, 100, nanos::get), 1, meterRegistry);
+        chain = exchange -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        };
+    }
+
+    @Test
+    @DisplayName("Should answer 429 with Retry-After once a subject exhausts its bucket")
+    void shouldRateLimitPerSubject() {
+        // Given
+        filter.filter(exchange(principal("subject-1")), chain).block();
+        filter.filter(exchange(principal("subject-1")), chain).block();
+        ServerWebExchange limited = exchange(principal("subject-1"));
+
+        // When
+        StepVerifier.create(filter.filter(limited, chain)).verifyComplete();
+        filter.filter(exchange(principal("subject-2")), chain).block();
+
+        // Then
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(limited.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(forwarded).hasValue(3);
+        assertThat(meterRegistry.get(AdmissionControlFilter.REJECTED_METER)
+                .tag("route", "user-service").tag("reason", "rate_limited").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should answer 503 while the route is at its in-flight limit and recover afterwards")
+    void shouldShedWhenRouteIsSaturated() {
+        // Given
+        Sinks.Empty<Void> response = Sinks.empty();
+        GatewayFilterChain slowChain = exchange -> response.asMono();
+        Mono<Void> inFlight = filter.filter(exchange(principal("subject-1")), slowChain);
+        StepVerifier.create(inFlight).then(() -> {
+            ServerWebExchange shed = exchange(principal("subject-2"));
+
+            // When
+            filter.filter(shed, chain).block();
+
+            // Then
+            assertThat(shed.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(meterRegistry.get(AdmissionControlFilter.IN_FLIGHT_METER).gauge().value()).isEqualTo(1);
+            response.tryEmitEmpty();
+        }).verifyComplete();
+
+        filter.filter(exchange(principal("subject-3")), chain).block();
+        assertThat(forwarded).hasValue(1);
+        assertThat(meterRegistry.get(AdmissionControlFilter.REJECTED_METER)
+                .tag("reason", "overloaded").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should key anonymous requests by remote address")
+    void shouldRateLimitAnonymousByRemoteAddress() {
+        for (int i = 0; i < 2; i++) {
+            filter.filter(exchange(null), chain).block();
+        }
+        ServerWebExchange limited = exchange(null);
+
+        filter.filter(limited, chain).block();
+
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private static Principal principal(String subject) {
+        return new JwtAuthenticationToken(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", subject)
+                .build());
+    }
+
+    private static ServerWebExchange exchange(Principal principal) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000)));
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("user-service").uri("http://localhost:8083").predicate(e -> true).build());
+        return principal != null ? exchange.mutate().principal(Mono.just(principal)).build() : exchange;
+    }
+}
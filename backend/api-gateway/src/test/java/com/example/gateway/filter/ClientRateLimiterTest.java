@@ -0,0 +1,49 @@
+package com.example.gateway.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final ClientRateLimiter limiter = new ClientRateLimiter(10, 3, 100, nanos::get);
+
+    @Test
+    @DisplayName("Should admit a burst and then report the wait for the next token")
+    void shouldAdmitBurstThenLimit() {
+        assertThat(limiter.tryAcquire("client-1")).isZero();
+        assertThat(limiter.tryAcquire("client-1")).isZero();
+        assertThat(limiter.tryAcquire("client-1")).isZero();
+
+        assertThat(limiter.tryAcquire("client-1")).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    @DisplayName("Should replenish tokens at the configured rate")
+    void shouldReplenishTokens() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("client-1");
+        }
+
+        nanos.addAndGet(Duration.ofMillis(100).toNanos());
+
+        assertThat(limiter.tryAcquire("client-1")).isZero();
+        assertThat(limiter.tryAcquire("client-1")).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should keep a separate bucket per client")
+    void shouldKeepBucketPerClient() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("client-1");
+        }
+
+        assertThat(limiter.tryAcquire("client-1")).isPositive();
+        assertThat(limiter.tryAcquire("client-2")).isZero();
+    }
+}
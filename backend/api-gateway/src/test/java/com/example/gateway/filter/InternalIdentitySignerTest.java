@@ -0,0 +1,62 @@
+package com.example.gateway.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InternalIdentitySignerTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should sign subject, expiry and realm roles")
+    void shouldSignSubjectExpiryAndRoles() throws Exception {
+        // Given
+        InternalIdentitySigner signer = new InternalIdentitySigner(SECRET, objectMapper);
+        Instant expiresAt = Instant.parse("2030-01-01T00:00:00Z");
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-user-id")
+                .claim("realm_access", Map.of("roles", List.of("user", "admin")))
+                .expiresAt(expiresAt)
+                .build();
+
+        // When
+        String identity = signer.sign(jwt);
+
+        // Then
+        String[] parts = identity.split("\\.");
+        assertThat(parts).hasSize(2);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        assertThat(Base64.getUrlDecoder().decode(parts[1]))
+                .isEqualTo(mac.doFinal(parts[0].getBytes(StandardCharsets.US_ASCII)));
+
+        JsonNode payload = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[0]));
+        assertThat(payload.get("sub").asText()).isEqualTo("test-user-id");
+        assertThat(payload.get("exp").asLong()).isEqualTo(expiresAt.getEpochSecond());
+        assertThat(payload.get("roles")).extracting(JsonNode::asText).containsExactly("user", "admin");
+    }
+
+    @Test
+    @DisplayName("Should reject a short secret")
+    void shouldRejectShortSecret() {
+        assertThatThrownBy(() -> new InternalIdentitySigner("too-short", objectMapper))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
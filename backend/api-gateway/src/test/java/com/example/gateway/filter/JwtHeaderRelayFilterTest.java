@@ -1,19 +1,30 @@
 package com.example.gateway.filter;
 
+import com.example.gateway.config.InternalIdentityProperties;
+import com.example.gateway.config.KeycloakRealmRoleConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.web.server.firewall.StrictServerWebExchangeFirewall;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.security.Principal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 class JwtHeaderRelayFilterTest {
@@ -24,7 +35,7 @@ class JwtHeaderRelayFilterTest {
 
     @BeforeEach
     void setUp() {
-        filter = new JwtHeaderRelayFilter();
+        filter = new JwtHeaderRelayFilter(new InternalIdentityProperties(null), new ObjectMapper());
         exchange = mock(ServerWebExchange.class);
         chain = mock(org.springframework.cloud.gateway.filter.GatewayFilterChain.class);
     }
@@ -53,8 +64,9 @@ class JwtHeaderRelayFilterTest {
         ServerWebExchange mutatedExchange = mock(ServerWebExchange.class);
 
         when(exchange.getPrincipal()).thenReturn(Mono.just(auth));
+        when(exchange.getRequest()).thenReturn(MockServerHttpRequest.get("/api/users/me").build());
         when(exchange.mutate()).thenReturn(exchangeBuilder);
-        when(exchangeBuilder.request(any(java.util.function.Consumer.class))).thenReturn(exchangeBuilder);
+        when(exchangeBuilder.request(any(ServerHttpRequest.class))).thenReturn(exchangeBuilder);
         when(exchangeBuilder.build()).thenReturn(mutatedExchange);
         when(mutatedExchange.getRequest()).thenReturn(mutatedRequest);
         when(chain.filter(mutatedExchange)).thenReturn(Mono.empty());
@@ -103,5 +115,118 @@ class JwtHeaderRelayFilterTest {
 
         verify(chain, times(1)).filter(exchange);
     }
-}
 
+    @Test
+    @DisplayName("Should relay precomputed realm roles and invoke the chain once")
+    void shouldRelayRealmRolesAndInvokeChainOnce() {
+        // Given
+        Jwt jwt = jwt("header.payload.signature-1");
+        AbstractAuthenticationToken auth = new KeycloakRealmRoleConverter().convert(jwt).block();
+        List<ServerHttpRequest> forwarded = new ArrayList<>();
+
+        // When
+        StepVerifier.create(filter.filter(authenticated(auth), recording(forwarded)))
+                .verifyComplete();
+
+        // Then
+        assertThat(forwarded).singleElement().satisfies(request -> {
+            assertThat(request.getHeaders().getFirst("X-User-Id")).isEqualTo("test-user-id");
+            assertThat(request.getHeaders().getFirst("X-User-Roles")).isEqualTo("ROLE_USER,ROLE_ADMIN");
+            assertThat(request.getHeaders().containsKey(InternalIdentitySigner.HEADER)).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("Should sign the internal identity once per token")
+    void shouldReuseInternalIdentityForRepeatedToken() {
+        // Given
+        JwtHeaderRelayFilter signingFilter = new JwtHeaderRelayFilter(
+                new InternalIdentityProperties("0123456789abcdef0123456789abcdef"), new ObjectMapper());
+        KeycloakRealmRoleConverter converter = new KeycloakRealmRoleConverter();
+        List<ServerHttpRequest> forwarded = new ArrayList<>();
+
+        // When
+        for (String token : List.of("header.payload.signature-1", "header.payload.signature-1", "header.payload.signature-2")) {
+            signingFilter.filter(authenticated(converter.convert(jwt(token)).block()), recording(forwarded)).block();
+        }
+
+        // Then
+        assertThat(forwarded).extracting(request -> request.getHeaders().getFirst(InternalIdentitySigner.HEADER))
+                .doesNotContainNull()
+                .satisfies(identities -> {
+                    assertThat(identities.get(1)).isSameAs(identities.get(0));
+                    assertThat(identities.get(2)).isNotSameAs(identities.get(0));
+                });
+    }
+
+    @Test
+    @DisplayName("Should relay headers on a request wrapped by the web exchange firewall")
+    void shouldRelayHeadersBehindFirewall() {
+        // Given: the firewall exposes read-only headers, as in front of every request the gateway serves
+        AbstractAuthenticationToken auth = new KeycloakRealmRoleConverter().convert(jwt("header.payload.signature-1")).block();
+        ServerWebExchange firewalled = new StrictServerWebExchangeFirewall()
+                .getFirewalledExchange(authenticated(auth))
+                .block();
+        List<ServerHttpRequest> forwarded = new ArrayList<>();
+
+        // When
+        StepVerifier.create(filter.filter(firewalled, recording(forwarded)))
+                .verifyComplete();
+
+        // Then
+        assertThat(forwarded).singleElement()
+                .satisfies(request -> assertThat(request.getHeaders().getFirst("X-User-Id")).isEqualTo("test-user-id"));
+    }
+
+    @Test
+    @DisplayName("Should replace client-sent relay headers and keep every other header")
+    void shouldOverlayRelayedHeadersOnClientHeaders() {
+        // Given
+        AbstractAuthenticationToken auth = new KeycloakRealmRoleConverter().convert(jwt("header.payload.signature-1")).block();
+        ServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me")
+                        .header("x-user-id", "spoofed")
+                        .header("Accept", "application/json", "text/plain"))
+                .mutate()
+                .principal(Mono.just(auth))
+                .build();
+        List<ServerHttpRequest> forwarded = new ArrayList<>();
+
+        // When
+        StepVerifier.create(filter.filter(exchange, recording(forwarded)))
+                .verifyComplete();
+
+        // Then
+        assertThat(forwarded).singleElement().satisfies(request -> {
+            assertThat(request.getHeaders().get("X-User-Id")).containsExactly("test-user-id");
+            assertThat(request.getHeaders().get("Accept")).containsExactly("application/json", "text/plain");
+            assertThat(request.getHeaders().keySet())
+                    .filteredOn(name -> name.equalsIgnoreCase("X-User-Id"))
+                    .containsExactly("X-User-Id");
+            assertThat(request.getHeaders()).hasSize(3);
+        });
+    }
+
+    private static Jwt jwt(String tokenValue) {
+        return Jwt.withTokenValue(tokenValue)
+                .header("alg", "RS256")
+                .claim("sub", "test-user-id")
+                .claim("realm_access", Map.of("roles", List.of("user", "admin")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    private static ServerWebExchange authenticated(Principal principal) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"))
+                .mutate()
+                .principal(Mono.just(principal))
+                .build();
+    }
+
+    private static org.springframework.cloud.gateway.filter.GatewayFilterChain recording(List<ServerHttpRequest> forwarded) {
+        return mutated -> {
+            forwarded.add(mutated.getRequest());
+            return Mono.empty();
+        };
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.gateway.filter;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("RouteTimingFilter Tests")
+class RouteTimingFilterTest {
+
+    private final MockClock clock = new MockClock();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+
+    private RouteTimingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RouteTimingFilter(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should split a request into filter chain, connection acquisition and time to first byte")
+    void shouldSplitGatewayAndUpstreamTime() {
+        // Given
+        ServerWebExchange exchange = arrive();
+        clock.add(Duration.ofMillis(3));
+        GatewayFilterChain upstream = routed -> Mono.deferContextual(context -> {
+            clock.add(Duration.ofMillis(2));
+            RouteTimingFilter.requestSent(context);
+            clock.add(Duration.ofMillis(40));
+            return Mono.<Void>empty();
+        });
+
+        // When
+        StepVerifier.create(filter.filter(exchange, upstream)).verifyComplete();
+
+        // Then
+        assertThat(timer(RouteTimingFilter.FILTER_CHAIN_METER, null)).isEqualTo(3);
+        assertThat(timer(RouteTimingFilter.ACQUIRE_METER, "success")).isEqualTo(2);
+        assertThat(timer(RouteTimingFilter.FIRST_BYTE_METER, "success")).isEqualTo(40);
+        assertThat(meterRegistry.get(RouteTimingFilter.FIRST_BYTE_METER)
+                .tag("route", "user-service").tag("outcome", "error").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should count requests waiting for a connection and time a failed acquisition as an error")
+    void shouldTrackPendingAcquisitions() {
+        // Given
+        Sinks.Empty<Void> acquisition = Sinks.empty();
+        GatewayFilterChain waiting = routed -> acquisition.asMono();
+
+        // When
+        StepVerifier.create(filter.filter(arrive(), waiting)).then(() -> {
+            // Then
+            assertThat(pending()).isEqualTo(1);
+            clock.add(Duration.ofMillis(5000));
+            acquisition.tryEmitError(new IllegalStateException("Pool#acquire(Duration) has been pending for more than the configured timeout"));
+        }).verifyError(IllegalStateException.class);
+
+        assertThat(pending()).isZero();
+        assertThat(timer(RouteTimingFilter.ACQUIRE_METER, "error")).isEqualTo(5000);
+        assertThat(meterRegistry.get(RouteTimingFilter.FIRST_BYTE_METER)
+                .tag("route", "user-service").tag("outcome", "error").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should learn from the instrumented HTTP client when the request went out")
+    void shouldReportRequestsSentByTheHttpClient() {
+        // Given
+        DisposableServer upstream = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.get("/users/me", (request, response) -> response.sendString(Mono.just("{}"))))
+                .bindNow();
+        HttpClient httpClient = RouteTimingFilter.instrument(HttpClient.create());
+        GatewayFilterChain proxy = routed -> httpClient.get()
+                .uri("http://localhost:" + upstream.port() + "/users/me")
+                .responseConnection((response, connection) -> Mono.just(response.status().code()))
+                .then();
+
+        // When
+        try {
+            StepVerifier.create(filter.filter(arrive(), proxy)).verifyComplete();
+        } finally {
+            upstream.disposeNow();
+        }
+
+        // Then
+        assertThat(meterRegistry.get(RouteTimingFilter.ACQUIRE_METER)
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteTimingFilter.FIRST_BYTE_METER)
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should time an unreachable upstream as a failed acquisition")
+    void shouldTimeUnreachableUpstreamAsFailedAcquisition() throws IOException {
+        // Given
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        HttpClient httpClient = RouteTimingFilter.instrument(HttpClient.create());
+        GatewayFilterChain proxy = routed -> httpClient.get()
+                .uri("http://127.0.0.1:" + closedPort + "/users/me")
+                .response()
+                .then();
+
+        // When
+        StepVerifier.create(filter.filter(arrive(), proxy)).verifyError(ConnectException.class);
+
+        // Then
+        assertThat(meterRegistry.get(RouteTimingFilter.ACQUIRE_METER)
+                .tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(RouteTimingFilter.ACQUIRE_METER)
+                .tag("outcome", "success").timer().count()).isZero();
+    }
+
+    private ServerWebExchange arrive() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"));
+        new RouteTimingFilter.ArrivalFilter(clock).filter(exchange, arrived -> Mono.empty()).block();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR,
+                Route.async().id("user-service").uri("http://localhost:8083").predicate(e -> true).build());
+        return exchange;
+    }
+
+    private double timer(String name, String outcome) {
+        var search = meterRegistry.get(name).tag("route", "user-service");
+        return (outcome != null ? search.tag("outcome", outcome) : search).timer().totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    private double pending() {
+        return meterRegistry.get(RouteTimingFilter.PENDING_METER).tag("route", "user-service").gauge().value();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.gateway.integration;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "gateway.tracing.tail-sampling.slow-threshold=0ms")
+@AutoConfigureObservability
+@DisplayName("Trace Propagation Integration Tests")
+class TracePropagationIntegrationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String BFF_SPAN_ID = "00f067aa0ba902b7";
+
+    private static final AtomicReference<HttpHeaders> upstreamHeaders = new AtomicReference<>();
+    private static final DisposableServer upstream = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes.get("/users/me", (request, response) -> {
+                HttpHeaders headers = new HttpHeaders();
+                request.requestHeaders().forEach(header -> headers.add(header.getKey(), header.getValue()));
+                upstreamHeaders.set(headers);
+                return response.header(HttpHeaders.CONTENT_TYPE, "application/json").sendString(Mono.just("{}"));
+            }))
+            .bindNow();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter collector;
+
+    @MockBean
+    private ReactiveJwtDecoder jwtDecoder;
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) {
+        registry.add("USER_SERVICE_BASE_URL", () -> "http://127.0.0.1:" + upstream.port());
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.disposeNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(jwtDecoder.decode("token")).thenReturn(Mono.just(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "traced-subject")
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build()));
+        collector.reset();
+        upstreamHeaders.set(null);
+    }
+
+    @Test
+    @DisplayName("Should propagate the caller's trace upstream as the gateway's client span, next to the relayed identity")
+    void shouldPropagateTraceThroughRelayedRoute() {
+        // Given
+        String traceparent = "00-" + TRACE_ID + "-" + BFF_SPAN_ID + "-01";
+
+        // When
+        webTestClient.get().uri("/api/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                .header("traceparent", traceparent)
+                .exchange()
+                .expectStatus().isOk();
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        // Then
+        List<SpanData> trace = collector.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .toList();
+        SpanData server = single(trace, span -> span.getKind() == SpanKind.SERVER);
+        SpanData security = single(trace, span -> span.getName().equals("security filterchain before"));
+        SpanData secured = single(trace, span -> span.getName().equals("secured request"));
+        SpanData client = single(trace, span -> span.getKind() == SpanKind.CLIENT);
+        assertThat(server.getParentSpanId()).isEqualTo(BFF_SPAN_ID);
+        assertThat(security.getParentSpanId()).isEqualTo(server.getSpanId());
+        assertThat(secured.getParentSpanId()).isEqualTo(security.getSpanId());
+        assertThat(client.getParentSpanId()).isEqualTo(secured.getSpanId());
+
+        HttpHeaders relayed = upstreamHeaders.get();
+        assertThat(relayed.get("traceparent")).containsExactly("00-" + TRACE_ID + "-" + client.getSpanId() + "-01");
+        assertThat(relayed.getFirst("X-User-Id")).isEqualTo("traced-subject");
+    }
+
+    private static SpanData single(List<SpanData> trace, Predicate<SpanData> match) {
+        List<SpanData> matching = trace.stream().filter(match).toList();
+        assertThat(matching).as("spans of %s", trace.stream().map(SpanData::getName).toList()).hasSize(1);
+        return matching.get(0);
+    }
+
+    @TestConfiguration
+    static class Collector {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the primary scores of two JMH JSON results (JMH's {@code -rf json}) and exits with 1 when any benchmark
+ * got worse than the baseline by more than a threshold. Throughput scores are better higher, every other mode lower.
+ * Benchmarks present in only one of the files are listed but never fail the comparison.
+ * <p>
+ * Arguments: {@code <baseline.json> <result.json> [threshold]}, the threshold being a fraction of the baseline
+ * score (default {@value #DEFAULT_THRESHOLD}). The Markdown report goes to stdout and, on GitHub Actions, to the
+ * job summary.
+ */
+public final class JmhResultComparison {
+
+    static final double DEFAULT_THRESHOLD = 0.2;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JmhResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultComparison <baseline.json> <result.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        List<Comparison> comparisons = compare(read(Path.of(args[0])), read(Path.of(args[1])));
+        String report = report(comparisons, threshold);
+        System.out.print(report);
+        String summary = System.getenv("GITHUB_STEP_SUMMARY");
+        if (summary != null && !summary.isBlank()) {
+            Files.writeString(Path.of(summary), report, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        if (comparisons.stream().anyMatch(comparison -> comparison.regressed(threshold))) {
+            System.exit(1);
+        }
+    }
+
+    static Map<String, Score> read(Path file) throws IOException {
+        return scores(MAPPER.readTree(file.toFile()));
+    }
+
+    /**
+     * Keyed by benchmark, parameters and mode, since one method may run in several of each.
+     */
+    static Map<String, Score> scores(JsonNode results) {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            if (!params.isEmpty()) {
+                key.append(params);
+            }
+            String mode = result.path("mode").asText();
+            key.append(' ').append(mode);
+            JsonNode metric = result.path("primaryMetric");
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(), metric.path("scoreUnit").asText(),
+                    "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    static List<Comparison> compare(Map<String, Score> baseline, Map<String, Score> result) {
+        List<Comparison> comparisons = new ArrayList<>();
+        result.forEach((key, score) -> comparisons.add(new Comparison(key, baseline.get(key), score)));
+        baseline.forEach((key, score) -> {
+            if (!result.containsKey(key)) {
+                comparisons.add(new Comparison(key, score, null));
+            }
+        });
+        return comparisons;
+    }
+
+    static String report(List<Comparison> comparisons, double threshold) {
+        StringBuilder report = new StringBuilder()
+                .append("### JMH vs. main (fails beyond ").append(Math.round(threshold * 100)).append("% worse)\n\n")
+                .append("| Benchmark | main | this run | change |\n")
+                .append("|---|---:|---:|---:|\n");
+        for (Comparison comparison : comparisons) {
+            report.append("| ").append(comparison.key())
+                    .append(" | ").append(format(comparison.baseline()))
+                    .append(" | ").append(format(comparison.result()))
+                    .append(" | ").append(comparison.describeChange(threshold))
+                    .append(" |\n");
+        }
+        return report.toString();
+    }
+
+    private static String format(Score score) {
+        return score == null ? "-" : String.format("%.3f %s", score.value(), score.unit());
+    }
+
+    record Score(double value, String unit, boolean higherIsBetter) {
+    }
+
+    record Comparison(String key, Score baseline, Score result) {
+
+        /**
+         * How much worse than the baseline, as a fraction of it: positive is a regression, negative an improvement.
+         */
+        double worsening() {
+            double change = (result.value() - baseline.value()) / baseline.value();
+            return result.higherIsBetter() ? -change : change;
+        }
+
+        boolean comparable() {
+            return baseline != null && result != null && baseline.value() > 0 && baseline.unit().equals(result.unit());
+        }
+
+        boolean regressed(double threshold) {
+            return comparable() && worsening() > threshold;
+        }
+
+        String describeChange(double threshold) {
+            if (!comparable()) {
+                return baseline == null ? "new" : result == null ? "removed" : "n/a";
+            }
+            String change = String.format("%+.1f%%", (result.value() - baseline.value()) / baseline.value() * 100);
+            return regressed(threshold) ? "**" + change + " regression**" : change;
+        }
+    }
+}
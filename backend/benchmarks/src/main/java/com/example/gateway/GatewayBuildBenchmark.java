@@ -0,0 +1,284 @@
+package com.example.gateway;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * The api-gateway as a plain jar ({@code jar}), as built by the {@code startup} profile with AOT and the CDS
+ * archive ({@code startup}), and as the {@code native} profile's executable ({@code native}), each run as its own
+ * process in front of a stub user-service that also serves the JWKS:
+ * <ul>
+ * <li>{@code firstHealth}: launch to the first {@code 200} from {@code /actuator/health}</li>
+ * <li>{@code proxiedRequest}: steady-state throughput of {@value #CLIENTS} clients calling
+ * {@code GET /api/users/me} with an RS256 bearer token, so JWT validation and the relay filter run on every
+ * request</li>
+ * </ul>
+ * Run with {@code -prof com.example.gateway.ResidentSetProfiler} to also get the gateway's resident set size,
+ * right after startup and after each throughput iteration. The builds are taken from {@code -Dgateway.target}
+ * (default {@code ../api-gateway/target}) after {@code mvn -B -DskipTests -Pstartup package} and, with GraalVM,
+ * {@code mvn -B -DskipTests -Pnative native:compile} there; {@code -p build=jar,startup} skips the native one.
+ */
+@State(Scope.Benchmark)
+public class GatewayBuildBenchmark {
+
+    static final int CLIENTS = 16;
+    private static final String JAR = "api-gateway-0.0.1-SNAPSHOT-exec.jar";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"jar", "startup", "native"})
+    private String build;
+
+    private Path target;
+    private ExecutorService upstreamExecutor;
+    private HttpServer upstream;
+    private HttpClient http;
+    private String bearer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        target = Path.of(System.getProperty("gateway.target", "../api-gateway/target")).toAbsolutePath().normalize();
+        if (!Files.exists(executable())) {
+            throw new IllegalStateException("No " + build + " build at " + executable());
+        }
+        RSAKey key = new RSAKeyGenerator(2048).keyID("benchmark").generate();
+        byte[] jwks = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        byte[] account = "{\"id\":1,\"subject\":\"benchmark-subject\",\"roles\":[\"ROLE_USER\"]}"
+                .getBytes(StandardCharsets.UTF_8);
+        upstreamExecutor = Executors.newFixedThreadPool(CLIENTS);
+        upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        upstream.setExecutor(upstreamExecutor);
+        upstream.createContext("/jwks", exchange -> respond(exchange, jwks));
+        upstream.createContext("/users/me", exchange -> respond(exchange, account));
+        upstream.start();
+
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(),
+                new JWTClaimsSet.Builder()
+                        .subject("benchmark-subject")
+                        .issuer(issuer())
+                        .issueTime(new Date())
+                        .expirationTime(Date.from(Instant.now().plus(Duration.ofHours(1))))
+                        .claim("realm_access", Map.of("roles", List.of("user")))
+                        .build());
+        jwt.sign(new RSASSASigner(key));
+        bearer = "Bearer " + jwt.serialize();
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    /**
+     * A gateway started by {@code firstHealth} and stopped after its iteration.
+     */
+    @State(Scope.Benchmark)
+    public static class FreshGateway {
+
+        private Gateway gateway;
+
+        @TearDown(Level.Iteration)
+        public void stop() throws InterruptedException {
+            if (gateway != null) {
+                gateway.stop();
+                gateway = null;
+            }
+        }
+    }
+
+    /**
+     * One gateway for all of {@code proxiedRequest}'s iterations.
+     */
+    @State(Scope.Benchmark)
+    public static class RunningGateway {
+
+        private Gateway gateway;
+        private HttpRequest request;
+
+        @Setup(Level.Trial)
+        public void setUp(GatewayBuildBenchmark benchmark) throws Exception {
+            gateway = benchmark.start();
+            benchmark.awaitOk(gateway, gateway.request("/actuator/health"));
+            request = HttpRequest.newBuilder(gateway.uri("/api/users/me"))
+                    .header("Authorization", benchmark.bearer)
+                    .build();
+        }
+
+        @TearDown(Level.Iteration)
+        public void sample() {
+            ResidentSetProfiler.sample(gateway.process().toHandle());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            gateway.stop();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    public int firstHealth(FreshGateway fresh) throws Exception {
+        fresh.gateway = start();
+        int status = awaitOk(fresh.gateway, fresh.gateway.request("/actuator/health"));
+        ResidentSetProfiler.sample(fresh.gateway.process().toHandle());
+        return status;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(CLIENTS)
+    public int proxiedRequest(RunningGateway running) throws Exception {
+        HttpResponse<Void> response = http.send(running.request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /api/users/me answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private Gateway start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>();
+        Path directory = target;
+        switch (build) {
+            case "jar" -> command.addAll(List.of(java(), "-jar", JAR));
+            case "startup" -> {
+                // the archive is only used with the classpath it was trained on
+                directory = target.resolve("startup");
+                command.addAll(List.of(java(), "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true",
+                        "-jar", JAR));
+            }
+            case "native" -> command.add(executable().toString());
+            default -> throw new IllegalArgumentException("Unknown build " + build);
+        }
+        String upstreamUrl = "http://localhost:" + upstream.getAddress().getPort();
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + issuer(),
+                "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + upstreamUrl + "/jwks",
+                "--USER_SERVICE_BASE_URL=" + upstreamUrl,
+                // a single client subject: admission control stays on the path without limiting it
+                "--gateway.admission.replenish-rate=1000000",
+                "--gateway.admission.burst-capacity=1000000"));
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return new Gateway(process, port);
+    }
+
+    private int awaitOk(Gateway gateway, HttpRequest request) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!gateway.process().isAlive()) {
+                throw new IllegalStateException("api-gateway exited with " + gateway.process().exitValue());
+            }
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (ConnectException ex) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException(request.uri() + " did not answer 200 within " + STARTUP_TIMEOUT);
+    }
+
+    private Path executable() {
+        return switch (build) {
+            case "startup" -> target.resolve("startup").resolve("app.jsa");
+            case "native" -> target.resolve("api-gateway");
+            default -> target.resolve(JAR);
+        };
+    }
+
+    private String issuer() {
+        return "http://localhost:" + upstream.getAddress().getPort() + "/realms/benchmark";
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private record Gateway(Process process, int port) {
+
+        URI uri(String path) {
+            return URI.create("http://localhost:" + port + path);
+        }
+
+        HttpRequest request(String path) {
+            return HttpRequest.newBuilder(uri(path)).build();
+        }
+
+        void stop() throws InterruptedException {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.gateway;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Reports the resident set size a benchmark sampled from the process it runs against, as the secondary result
+ * {@code rss} averaged over iterations. Enabled with {@code -prof com.example.gateway.ResidentSetProfiler}; reads
+ * {@code /proc}, so Linux only.
+ */
+public class ResidentSetProfiler implements InternalProfiler {
+
+    private static volatile double sampledMegabytes = Double.NaN;
+
+    /**
+     * Samples the process's current resident set size for the iteration in progress.
+     */
+    static void sample(ProcessHandle process) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", Long.toString(process.pid()), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    // VmRSS:    123456 kB
+                    sampledMegabytes = Long.parseLong(line.replaceAll("\\D", "")) / 1024.0;
+                    return;
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            sampledMegabytes = Double.NaN;
+        }
+    }
+
+    @Override
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        sampledMegabytes = Double.NaN;
+    }
+
+    @Override
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams,
+                                                       IterationParams iterationParams, IterationResult result) {
+        double megabytes = sampledMegabytes;
+        if (Double.isNaN(megabytes)) {
+            return List.of();
+        }
+        return List.of(new ScalarResult("rss", megabytes, "MB", AggregationPolicy.AVG));
+    }
+
+    @Override
+    public String getDescription() {
+        return "Resident set size of the process under test";
+    }
+}
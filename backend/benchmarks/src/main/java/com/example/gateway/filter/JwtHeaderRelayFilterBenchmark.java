@@ -0,0 +1,89 @@
+package com.example.gateway.filter;
+
+import java.security.Principal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+
+import com.example.gateway.config.InternalIdentityProperties;
+import com.example.gateway.config.KeycloakRealmRoleConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * The relay filter runs on every routed request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtHeaderRelayFilterBenchmark {
+
+    private JwtHeaderRelayFilter filter;
+    private JwtHeaderRelayFilter signingFilter;
+    private AbstractAuthenticationToken authentication;
+    private ServerWebExchange exchange;
+    private ServerWebExchange anonymousExchange;
+    private GatewayFilterChain chain;
+
+    @Setup
+    public void setUp() {
+        filter = new JwtHeaderRelayFilter(new InternalIdentityProperties(null), new ObjectMapper());
+        signingFilter = new JwtHeaderRelayFilter(
+                new InternalIdentityProperties("benchmark-secret-at-least-32-bytes-long"), new ObjectMapper());
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "subject-1")
+                .claim("realm_access", Map.of("roles", List.of("user", "admin")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build();
+        authentication = new KeycloakRealmRoleConverter().convert(jwt).block();
+        // the filter mutates a copy, so one authenticated exchange serves every invocation
+        exchange = new ServerWebExchangeDecorator(MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me"))) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T extends Principal> Mono<T> getPrincipal() {
+                return (Mono<T>) Mono.just(authentication);
+            }
+        };
+        anonymousExchange = MockServerWebExchange.from(MockServerHttpRequest.get("/actuator/health"));
+        chain = mutated -> Mono.empty();
+    }
+
+    @Benchmark
+    public void filter() {
+        filter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    public void filterWithInternalIdentity() {
+        signingFilter.filter(exchange, chain).block();
+    }
+
+    @Benchmark
+    public void filterWithoutPrincipal() {
+        filter.filter(anonymousExchange, chain).block();
+    }
+
+    @Benchmark
+    public String serializeAuthorities() {
+        return filter.serializeAuthorities(authentication.getAuthorities());
+    }
+}
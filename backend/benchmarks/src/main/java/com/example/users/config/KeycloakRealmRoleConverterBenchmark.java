@@ -0,0 +1,47 @@
+package com.example.users.config;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Realm role conversion runs once per authenticated request. Run with {@code -prof gc} for allocations per op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KeycloakRealmRoleConverterBenchmark {
+
+    private KeycloakRealmRoleConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() {
+        converter = new KeycloakRealmRoleConverter();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "subject-1")
+                .claim("realm_access", Map.of("roles",
+                        List.of("user", "admin", "offline_access", "uma_authorization", "default-roles-poc")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(300))
+                .build();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+}
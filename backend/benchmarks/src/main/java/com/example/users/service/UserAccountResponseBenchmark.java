@@ -0,0 +1,82 @@
+package com.example.users.service;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.users.domain.UserAccount;
+import com.example.users.dto.UserAccountPage;
+import com.example.users.dto.UserAccountResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Entity to DTO mapping and the JSON encoding of a {@code GET /users} page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserAccountResponseBenchmark {
+
+    private UserAccount account;
+
+    @Setup
+    public void setUp() {
+        account = account(1);
+    }
+
+    @Benchmark
+    public UserAccountResponse toResponse() {
+        return UserAccountService.toResponse(account);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PageState state) throws JsonProcessingException {
+        return state.writer.writeValueAsBytes(state.page);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"50", "500"})
+        private int pageSize;
+
+        private UserAccountPage page;
+        private ObjectWriter writer;
+
+        @Setup
+        public void setUp() {
+            List<UserAccountResponse> items = IntStream.rangeClosed(1, pageSize)
+                    .mapToObj(UserAccountResponseBenchmark::account)
+                    .map(UserAccountService::toResponse)
+                    .toList();
+            page = new UserAccountPage(items, "aWQ6NTA");
+            // configured like the Spring MVC message converter
+            writer = Jackson2ObjectMapperBuilder.json().build().writerFor(UserAccountPage.class);
+        }
+    }
+
+    private static UserAccount account(int id) {
+        return UserAccount.builder()
+                .id((long) id)
+                .subject("subject-" + id)
+                .username("user" + id)
+                .email("user" + id + "@example.com")
+                .roles(new HashSet<>(Set.of("ROLE_USER", "ROLE_ADMIN")))
+                .createdAt(Instant.parse("2024-01-01T00:00:00Z"))
+                .build();
+    }
+}
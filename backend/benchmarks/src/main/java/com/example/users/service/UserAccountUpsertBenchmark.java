@@ -0,0 +1,85 @@
+package com.example.users.service;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.users.UserServiceApplication;
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.dto.UserAccountResponse;
+
+/**
+ * Native {@code INSERT ... ON CONFLICT} upsert against the JPA read-modify-write, on a real PostgreSQL.
+ * The database is taken from {@code SPRING_DATASOURCE_URL}, {@code SPRING_DATASOURCE_USERNAME} and
+ * {@code SPRING_DATASOURCE_PASSWORD}, defaulting to the local docker compose database. Most calls hit an
+ * existing subject, as logins do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class UserAccountUpsertBenchmark {
+
+    @Param("1000")
+    private int subjects;
+
+    private ConfigurableApplicationContext context;
+    private UserAccountService service;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                // both services ship an application.yml on this classpath, so neither is loaded
+                .properties(
+                        "spring.config.name=user-service-benchmark",
+                        "spring.datasource.url=${SPRING_DATASOURCE_URL:jdbc:postgresql://localhost:5432/users?reWriteBatchedInserts=true}",
+                        "spring.datasource.username=${SPRING_DATASOURCE_USERNAME:app}",
+                        "spring.datasource.password=${SPRING_DATASOURCE_PASSWORD:app}",
+                        "spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "spring.security.oauth2.resourceserver.jwt.issuer-uri=http://localhost:8080/realms/poc",
+                        "spring.security.oauth2.resourceserver.jwt.jwk-set-uri=http://localhost:8080/realms/poc/protocol/openid-connect/certs",
+                        "spring.cloud.gateway.enabled=false",
+                        "server.port=0",
+                        "users.cache.broadcast=false",
+                        "logging.level.root=WARN")
+                .run();
+        service = context.getBean(UserAccountService.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserAccountResponse nativeUpsert() {
+        return transactionTemplate.execute(status -> service.upsertNative(nextRequest()));
+    }
+
+    @Benchmark
+    public UserAccountResponse entityUpsert() {
+        return transactionTemplate.execute(status -> service.upsertEntity(nextRequest()));
+    }
+
+    private UserAccountRequest nextRequest() {
+        int id = ThreadLocalRandom.current().nextInt(subjects);
+        return new UserAccountRequest("bench-subject-" + id, "bench" + id, "bench" + id + "@example.com",
+                ThreadLocalRandom.current().nextBoolean() ? Set.of("ROLE_USER") : Set.of("ROLE_USER", "ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.users.web;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.gateway.filter.InternalIdentitySigner;
+import com.example.users.UserServiceApplication;
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.service.UserAccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.Filter;
+
+/**
+ * {@value #CLIENTS} concurrent clients polling {@code GET /users/me} over HTTP against each request-handling
+ * {@code stack}: thread-per-request Tomcat ({@code platform}), virtual threads ({@code virtual}), or the R2DBC read
+ * path ({@code reactive}). The account cache is off, so every request reads the database. {@code latencyMillis}
+ * blocks every request for that long in a servlet filter, standing in for a Keycloak latency spike that every
+ * stack sits out on its request thread. Clients authenticate with the gateway's internal identity header, so no
+ * Keycloak is needed; the database is the one {@link com.example.users.service.UserAccountUpsertBenchmark} uses.
+ * <p>
+ * Throughput is reported in requests per millisecond, and {@code SampleTime} gives the p99 latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(CurrentUserLoadBenchmark.CLIENTS)
+public class CurrentUserLoadBenchmark {
+
+    static final int CLIENTS = 2000;
+    private static final String SECRET = "benchmark-secret-at-least-32-bytes-long";
+
+    @Param({"platform", "virtual", "reactive"})
+    private String stack;
+
+    @Param({"0", "50"})
+    private long latencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private InternalIdentitySigner signer;
+    private HttpClient http;
+    private URI currentUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long latency = latencyMillis;
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .initializers(context -> ((GenericApplicationContext) context).registerBean("latencyFilter",
+                        Filter.class, () -> (request, response, chain) -> {
+                            if (latency > 0) {
+                                try {
+                                    Thread.sleep(latency);
+                                } catch (InterruptedException ex) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+                            chain.doFilter(request, response);
+                        }))
+                // both services ship an application.yml on this classpath, so neither is loaded
+                .properties(
+                        "spring.config.name=user-service-benchmark",
+                        "spring.threads.virtual.enabled=" + stack.equals("virtual"),
+                        "users.reactive-reads.enabled=" + stack.equals("reactive"),
+                        "spring.datasource.url=${SPRING_DATASOURCE_URL:jdbc:postgresql://localhost:5432/users?reWriteBatchedInserts=true}",
+                        "spring.datasource.username=${SPRING_DATASOURCE_USERNAME:app}",
+                        "spring.datasource.password=${SPRING_DATASOURCE_PASSWORD:app}",
+                        "spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "spring.datasource.hikari.maximum-pool-size=20",
+                        "spring.datasource.hikari.minimum-idle=10",
+                        "spring.r2dbc.url=${SPRING_R2DBC_URL:r2dbc:postgresql://localhost:5432/users}",
+                        "spring.r2dbc.username=${SPRING_DATASOURCE_USERNAME:app}",
+                        "spring.r2dbc.password=${SPRING_DATASOURCE_PASSWORD:app}",
+                        // as many connections as the Hikari pool
+                        "spring.r2dbc.pool.initial-size=20",
+                        "spring.r2dbc.pool.max-size=20",
+                        "spring.security.oauth2.resourceserver.jwt.issuer-uri=http://localhost:8080/realms/poc",
+                        "spring.security.oauth2.resourceserver.jwt.jwk-set-uri=http://localhost:8080/realms/poc/protocol/openid-connect/certs",
+                        "spring.cloud.gateway.enabled=false",
+                        "users.security.internal-identity.secret=" + SECRET,
+                        "users.cache.broadcast=false",
+                        "users.cache.maximum-size=0",
+                        // every client gets a connection up front, so only request handling is compared
+                        "server.tomcat.accept-count=" + CLIENTS,
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+        UserAccountService service = context.getBean(UserAccountService.class);
+        for (int i = 0; i < CLIENTS; i++) {
+            service.upsert(new UserAccountRequest(subject(i), "load" + i, "load" + i + "@example.com", Set.of("ROLE_USER")));
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        currentUser = URI.create("http://localhost:" + port + "/users/me");
+        signer = new InternalIdentitySigner(SECRET, new ObjectMapper());
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private HttpRequest request;
+
+        @Setup(Level.Trial)
+        public void setUp(CurrentUserLoadBenchmark benchmark, ThreadParams thread) {
+            Jwt jwt = Jwt.withTokenValue("token")
+                    .header("alg", "RS256")
+                    .claim("sub", subject(thread.getThreadIndex()))
+                    .claim("realm_access", Map.of("roles", List.of("user")))
+                    .issuedAt(Instant.now())
+                    .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                    .build();
+            request = HttpRequest.newBuilder(benchmark.currentUser)
+                    .header(InternalIdentitySigner.HEADER, benchmark.signer.sign(jwt))
+                    .build();
+        }
+    }
+
+    @Benchmark
+    public int currentUser(Client client) throws Exception {
+        HttpResponse<Void> response = http.send(client.request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET /users/me answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private static String subject(int client) {
+        return "load-subject-" + client;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.users.web;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.gateway.filter.InternalIdentitySigner;
+import com.example.users.UserServiceApplication;
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.service.UserAccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The cost of the user-service's metrics and tracing on {@code GET /users/me}, with all of it {@code on} as
+ * configured in {@code application.yml} and {@code off}. The account cache is off, so every request goes through
+ * the controller, the service, the repository and JDBC, each of which is timed; the client authenticates with the
+ * gateway's internal identity header, so the token decode and role conversion are timed too. {@code scrape} renders
+ * what the requests recorded as Prometheus would fetch it. The database is the one
+ * {@link com.example.users.service.UserAccountUpsertBenchmark} uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InstrumentationOverheadBenchmark {
+
+    private static final String SECRET = "benchmark-secret-at-least-32-bytes-long";
+    private static final String SUBJECT = "instrumentation-subject";
+
+    @Param({"off", "on"})
+    private String instrumentation;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private HttpRequest currentUser;
+    private HttpRequest prometheus;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> properties = new ArrayList<>(List.of(
+                // both services ship an application.yml on this classpath, so neither is loaded
+                "spring.config.name=user-service-benchmark",
+                "spring.datasource.url=${SPRING_DATASOURCE_URL:jdbc:postgresql://localhost:5432/users?reWriteBatchedInserts=true}",
+                "spring.datasource.username=${SPRING_DATASOURCE_USERNAME:app}",
+                "spring.datasource.password=${SPRING_DATASOURCE_PASSWORD:app}",
+                "spring.datasource.driver-class-name=org.postgresql.Driver",
+                "spring.security.oauth2.resourceserver.jwt.issuer-uri=http://localhost:8080/realms/poc",
+                "spring.security.oauth2.resourceserver.jwt.jwk-set-uri=http://localhost:8080/realms/poc/protocol/openid-connect/certs",
+                "spring.cloud.gateway.enabled=false",
+                "users.security.internal-identity.secret=" + SECRET,
+                "users.cache.broadcast=false",
+                "users.cache.maximum-size=0",
+                "management.endpoints.web.exposure.include=prometheus",
+                "server.port=0",
+                "logging.level.root=WARN"));
+        if (instrumentation.equals("on")) {
+            properties.addAll(List.of(
+                    "management.observations.annotations.enabled=true",
+                    "management.metrics.distribution.slo.http.server.requests=5ms,10ms,25ms,50ms,100ms,250ms,500ms,1s,2500ms",
+                    "management.metrics.distribution.slo.users.service=1ms,5ms,10ms,25ms,50ms,100ms,250ms,1s",
+                    "management.metrics.distribution.slo.spring.data.repository.invocations=1ms,5ms,10ms,25ms,50ms,100ms,250ms",
+                    "management.metrics.distribution.slo.users.jdbc.execution=1ms,5ms,10ms,25ms,50ms,100ms,250ms",
+                    "management.metrics.distribution.slo.users.jdbc.statements=1.0,2.0,3.0,5.0,10.0,25.0,50.0,100.0",
+                    "management.metrics.distribution.slo.users.security.jwt.decode=100us,500us,1ms,5ms,25ms",
+                    "management.metrics.distribution.slo.users.security.roles=10us,100us,1ms"));
+        } else {
+            properties.addAll(List.of(
+                    "management.metrics.enable.all=false",
+                    "management.tracing.enabled=false"));
+        }
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(properties.toArray(String[]::new))
+                .run();
+        context.getBean(UserAccountService.class)
+                .upsert(new UserAccountRequest(SUBJECT, "instrumentation", "instrumentation@example.com",
+                        Set.of("ROLE_USER")));
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", SUBJECT)
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .build();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        currentUser = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/me"))
+                .header(InternalIdentitySigner.HEADER, new InternalIdentitySigner(SECRET, new ObjectMapper()).sign(jwt))
+                .build();
+        prometheus = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/prometheus")).build();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int currentUser() throws Exception {
+        return send(currentUser);
+    }
+
+    @Benchmark
+    public int scrape() throws Exception {
+        return send(prometheus);
+    }
+
+    private int send(HttpRequest request) throws Exception {
+        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + request.uri().getPath() + " answered " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.users.web;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.example.gateway.filter.InternalIdentitySigner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Time from launching the user-service's executable jar to its first {@code 200} from {@code /actuator/health}
+ * and from {@code /users/me}, as a plain jar ({@code jar}) and as built by the {@code startup} profile with AOT
+ * and the CDS archive ({@code startup}). Each invocation starts a fresh JVM; pods skip the migrations, so both
+ * builds start against a database migrated beforehand by {@code SchemaMigration}. The jars are taken from
+ * {@code -Dusers.target} (default {@code ../user-service/target}), after
+ * {@code mvn -B -DskipTests -Pstartup package} there. The database is the one
+ * {@link com.example.users.service.UserAccountUpsertBenchmark} uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+public class StartupTimeBenchmark {
+
+    private static final String SECRET = "benchmark-secret-at-least-32-bytes-long";
+    private static final String SUBJECT = "startup-subject";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"jar", "startup"})
+    private String build;
+
+    private Path target;
+    private String jar;
+    private HttpClient http;
+    private String identity;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        target = Path.of(System.getProperty("users.target", "../user-service/target")).toAbsolutePath().normalize();
+        jar = "user-service-0.0.1-SNAPSHOT-exec.jar";
+        if (!Files.exists(target.resolve("startup").resolve("app.jsa"))) {
+            throw new IllegalStateException("No CDS archive in " + target + "/startup, build with -Pstartup first");
+        }
+        Process migration = new ProcessBuilder(java(), "-Dloader.main=com.example.users.SchemaMigration",
+                "-cp", target.resolve(jar).toString(), "org.springframework.boot.loader.launch.PropertiesLauncher")
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (migration.waitFor() != 0) {
+            throw new IllegalStateException("SchemaMigration exited with " + migration.exitValue());
+        }
+        seedAccount();
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", SUBJECT)
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .build();
+        identity = new InternalIdentitySigner(SECRET, new ObjectMapper()).sign(jwt);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+            process = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+    }
+
+    @Benchmark
+    public int firstHealth() throws Exception {
+        int port = start();
+        return awaitOk(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build());
+    }
+
+    @Benchmark
+    public int firstCurrentUser() throws Exception {
+        int port = start();
+        return awaitOk(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/users/me"))
+                .header(InternalIdentitySigner.HEADER, identity)
+                .build());
+    }
+
+    private int start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(List.of(java()));
+        Path directory = target;
+        if (build.equals("startup")) {
+            // the archive is only used with the classpath it was trained on
+            directory = target.resolve("startup");
+            command.addAll(List.of("-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true"));
+        }
+        command.addAll(List.of("-jar", jar,
+                "--server.port=" + port,
+                "--spring.flyway.enabled=false",
+                "--users.security.internal-identity.secret=" + SECRET));
+        process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        return port;
+    }
+
+    private int awaitOk(HttpRequest request) throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("user-service exited with " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (ConnectException ex) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException(request.uri() + " did not answer 200 within " + STARTUP_TIMEOUT);
+    }
+
+    private static void seedAccount() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(
+                env("SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/users?reWriteBatchedInserts=true"),
+                env("SPRING_DATASOURCE_USERNAME", "app"), env("SPRING_DATASOURCE_PASSWORD", "app"));
+             PreparedStatement insert = connection.prepareStatement("""
+                     INSERT INTO user_accounts (id, subject, username, email, createdAt, version)
+                     VALUES (nextval('user_accounts_seq'), ?, 'startup', 'startup@example.com', now(), 0)
+                     ON CONFLICT (subject) DO NOTHING
+                     """)) {
+            insert.setString(1, SUBJECT);
+            insert.executeUpdate();
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+
+import com.example.benchmarks.JmhResultComparison.Comparison;
+import com.example.benchmarks.JmhResultComparison.Score;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JMH Result Comparison Tests")
+class JmhResultComparisonTest {
+
+    private static final double THRESHOLD = 0.2;
+
+    @Test
+    @DisplayName("Should flag a throughput drop and an average-time rise beyond the threshold")
+    void shouldFlagRegressionsInEitherDirection() throws Exception {
+        // Given
+        Map<String, Score> baseline = scores("""
+                [{"benchmark": "a.Throughput", "mode": "thrpt", "params": {"size": "10"},
+                  "primaryMetric": {"score": 1000.0, "scoreUnit": "ops/s"}},
+                 {"benchmark": "a.Latency", "mode": "avgt",
+                  "primaryMetric": {"score": 100.0, "scoreUnit": "ns/op"}}]
+                """);
+        Map<String, Score> result = scores("""
+                [{"benchmark": "a.Throughput", "mode": "thrpt", "params": {"size": "10"},
+                  "primaryMetric": {"score": 700.0, "scoreUnit": "ops/s"}},
+                 {"benchmark": "a.Latency", "mode": "avgt",
+                  "primaryMetric": {"score": 130.0, "scoreUnit": "ns/op"}}]
+                """);
+
+        // When
+        List<Comparison> comparisons = JmhResultComparison.compare(baseline, result);
+
+        // Then
+        assertThat(comparisons).hasSize(2).allMatch(comparison -> comparison.regressed(THRESHOLD));
+        assertThat(JmhResultComparison.report(comparisons, THRESHOLD))
+                .contains("| a.Throughput{size=10} thrpt | 1000.000 ops/s | 700.000 ops/s | **-30.0% regression** |");
+    }
+
+    @Test
+    @DisplayName("Should pass improvements, changes within the threshold and benchmarks without a baseline")
+    void shouldPassWithinThreshold() throws Exception {
+        // Given
+        Map<String, Score> baseline = scores("""
+                [{"benchmark": "a.Throughput", "mode": "thrpt",
+                  "primaryMetric": {"score": 1000.0, "scoreUnit": "ops/s"}},
+                 {"benchmark": "a.Latency", "mode": "avgt",
+                  "primaryMetric": {"score": 100.0, "scoreUnit": "ns/op"}}]
+                """);
+        Map<String, Score> result = scores("""
+                [{"benchmark": "a.Throughput", "mode": "thrpt",
+                  "primaryMetric": {"score": 900.0, "scoreUnit": "ops/s"}},
+                 {"benchmark": "a.Latency", "mode": "avgt",
+                  "primaryMetric": {"score": 50.0, "scoreUnit": "ns/op"}},
+                 {"benchmark": "a.New", "mode": "avgt",
+                  "primaryMetric": {"score": 10.0, "scoreUnit": "ns/op"}}]
+                """);
+
+        // When
+        List<Comparison> comparisons = JmhResultComparison.compare(baseline, result);
+
+        // Then
+        assertThat(comparisons).hasSize(3).noneMatch(comparison -> comparison.regressed(THRESHOLD));
+        assertThat(JmhResultComparison.report(comparisons, THRESHOLD)).contains("| a.New avgt | - | 10.000 ns/op | new |");
+    }
+
+    private static Map<String, Score> scores(String json) throws Exception {
+        return JmhResultComparison.scores(new ObjectMapper().readTree(json));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.users.config;
+
+import com.example.gateway.filter.InternalIdentitySigner;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lives in the benchmarks module because it is the only one that depends on both services.
+ */
+@DisplayName("Internal Identity Round Trip Tests")
+class InternalIdentityRoundTripTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Test
+    @DisplayName("Should let the user-service decode what the gateway signed")
+    void shouldDecodeWhatGatewaySigned() {
+        // Given
+        Instant expiresAt = Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.SECONDS);
+        Jwt token = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("test-subject")
+                .claim("realm_access", Map.of("roles", List.of("user", "admin")))
+                .expiresAt(expiresAt)
+                .build();
+        String identity = new InternalIdentitySigner(SECRET, new ObjectMapper()).sign(token);
+
+        // When
+        Jwt decoded = new InternalIdentityDecoder(SECRET, new ObjectMapper()).decode(identity);
+
+        // Then
+        assertThat(decoded.getSubject()).isEqualTo("test-subject");
+        assertThat(decoded.getExpiresAt()).isEqualTo(expiresAt);
+        assertThat(decoded.<Map<String, Object>>getClaim("realm_access"))
+                .containsEntry("roles", List.of("user", "admin"));
+    }
+}
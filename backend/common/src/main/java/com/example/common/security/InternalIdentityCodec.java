@@ -0,0 +1,121 @@
+package com.example.common.security;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Wire format of the {@value #HEADER} header the gateway signs and the user-service verifies:
+ * {@code base64url(payload) "." base64url(HMAC-SHA256(secret, base64url(payload)))}, where the payload is
+ * {@code {"sub": ..., "exp": <epoch seconds>, "roles": [<realm roles>]}}. Both sides must share the secret.
+ * <p>
+ * An identity expires with the token it was made from, give or take {@link #CLOCK_SKEW}: the same leeway Spring
+ * Security's {@code JwtTimestampValidator} gives the token itself, so a token the gateway still accepts never
+ * yields an identity the user-service rejects.
+ */
+public class InternalIdentityCodec {
+
+    public static final String HEADER = "X-Internal-Identity";
+    public static final int MIN_SECRET_LENGTH = 32;
+    public static final Duration CLOCK_SKEW = Duration.ofSeconds(60);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder BASE64 = Base64.getUrlEncoder().withoutPadding();
+
+    private final SecretKeySpec key;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public InternalIdentityCodec(String secret, ObjectMapper objectMapper) {
+        this(secret, objectMapper, Clock.systemUTC());
+    }
+
+    public InternalIdentityCodec(String secret, ObjectMapper objectMapper, Clock clock) {
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("Internal identity secret must be at least " + MIN_SECRET_LENGTH + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public String encode(String subject, Instant expiresAt, Collection<?> roles) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sub", subject);
+        payload.put("exp", expiresAt.getEpochSecond());
+        payload.put("roles", roles);
+        try {
+            String encoded = BASE64.encodeToString(objectMapper.writeValueAsBytes(payload));
+            return encoded + "." + BASE64.encodeToString(mac(encoded));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize internal identity", ex);
+        }
+    }
+
+    /**
+     * @throws BadJwtException if the value is malformed, not signed with the shared secret or expired
+     */
+    public InternalIdentity decode(String value) {
+        int separator = value.indexOf('.');
+        if (separator < 0) {
+            throw new BadJwtException("Malformed internal identity");
+        }
+        String encodedPayload = value.substring(0, separator);
+        JsonNode payload;
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(value.substring(separator + 1));
+            if (!MessageDigest.isEqual(signature, mac(encodedPayload))) {
+                throw new BadJwtException("Invalid internal identity signature");
+            }
+            payload = objectMapper.readTree(Base64.getUrlDecoder().decode(encodedPayload));
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new BadJwtException("Malformed internal identity", ex);
+        }
+
+        String subject = payload.path("sub").asText(null);
+        JsonNode exp = payload.path("exp");
+        if (subject == null || !exp.canConvertToLong()) {
+            throw new BadJwtException("Internal identity without sub or exp");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(exp.asLong());
+        if (!expiresAt.plus(CLOCK_SKEW).isAfter(clock.instant())) {
+            throw new BadJwtException("Internal identity expired");
+        }
+        List<String> roles = new ArrayList<>();
+        payload.path("roles").forEach(role -> roles.add(role.asText()));
+        return new InternalIdentity(subject, expiresAt, roles);
+    }
+
+    private byte[] mac(String encodedPayload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Cannot compute internal identity signature", ex);
+        }
+    }
+
+    public record InternalIdentity(String subject, Instant expiresAt, List<String> roles) {
+    }
+}
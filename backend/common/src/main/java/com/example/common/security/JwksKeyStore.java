@@ -0,0 +1,172 @@
+package com.example.common.security;
+
+import java.net.URL;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.context.SmartLifecycle;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the issuer's JSON Web Key Set in memory so token validation never waits on Keycloak in the common case.
+ * <p>
+ * Keys are prefetched on start and refreshed in the background. A token signed with an unknown key id triggers a
+ * rate-limited refresh to pick up rotated keys. Concurrent refreshes share one fetch. When a refresh fails the
+ * previous keys keep being served until they exceed {@link JwksProperties#maxStaleness()}.
+ */
+@Slf4j
+public class JwksKeyStore implements JWKSource<SecurityContext>, SmartLifecycle {
+
+    private static final int SIZE_LIMIT_BYTES = 512 * 1024;
+
+    private final URL jwkSetUrl;
+    private final JwksProperties properties;
+    private final Clock clock;
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<JWKSet>> inFlight = new AtomicReference<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("jwks-refresh").daemon().factory());
+
+    private volatile Instant lastUnknownKeyRefresh = Instant.MIN;
+    private volatile boolean running;
+
+    public JwksKeyStore(URL jwkSetUrl, JwksProperties properties) {
+        this(jwkSetUrl, properties, Clock.systemUTC());
+    }
+
+    JwksKeyStore(URL jwkSetUrl, JwksProperties properties, Clock clock) {
+        this.jwkSetUrl = jwkSetUrl;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        try {
+            return select(selector).join();
+        } catch (CompletionException ex) {
+            throw new KeySourceException("Couldn't retrieve JWK set: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    /**
+     * Selects from the cached keys, fetching only when none are usable yet or the selector matches no known key.
+     */
+    public CompletableFuture<List<JWK>> select(JWKSelector selector) {
+        Snapshot current = snapshot.get();
+        CompletableFuture<JWKSet> keys = current != null && !current.isExpired(clock.instant(), properties.maxStaleness())
+                ? CompletableFuture.completedFuture(current.keys())
+                : refresh();
+        return keys.thenCompose(jwkSet -> {
+            List<JWK> matches = selector.select(jwkSet);
+            if (matches.isEmpty() && claimUnknownKeyRefresh()) {
+                // a failed refresh leaves the token unverifiable rather than failing the key lookup
+                return refresh().thenApply(selector::select).exceptionally(ex -> matches);
+            }
+            return CompletableFuture.completedFuture(matches);
+        });
+    }
+
+    /**
+     * Fetches the key set, joining the fetch already in progress if there is one.
+     */
+    public CompletableFuture<JWKSet> refresh() {
+        while (true) {
+            CompletableFuture<JWKSet> pending = inFlight.get();
+            if (pending != null) {
+                return pending;
+            }
+            CompletableFuture<JWKSet> fetch = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, fetch)) {
+                try {
+                    executor.execute(() -> load(fetch));
+                } catch (RuntimeException ex) {
+                    inFlight.compareAndSet(fetch, null);
+                    fetch.completeExceptionally(ex);
+                }
+                return fetch;
+            }
+        }
+    }
+
+    private void load(CompletableFuture<JWKSet> fetch) {
+        JWKSet keys;
+        try {
+            int timeoutMillis = (int) properties.timeout().toMillis();
+            keys = JWKSet.load(jwkSetUrl, timeoutMillis, timeoutMillis, SIZE_LIMIT_BYTES);
+            snapshot.set(new Snapshot(keys, clock.instant()));
+        } catch (Exception ex) {
+            inFlight.compareAndSet(fetch, null);
+            fetch.completeExceptionally(ex);
+            return;
+        }
+        // cleared before completing, so a caller reacting to this result can start a fresh fetch
+        inFlight.compareAndSet(fetch, null);
+        fetch.complete(keys);
+    }
+
+    private boolean claimUnknownKeyRefresh() {
+        Instant now = clock.instant();
+        Instant last = lastUnknownKeyRefresh;
+        if (last.plus(properties.minRefreshInterval()).isAfter(now)) {
+            return false;
+        }
+        lastUnknownKeyRefresh = now;
+        return true;
+    }
+
+    private void refreshInBackground() {
+        refresh().whenComplete((keys, ex) -> {
+            if (ex != null) {
+                Snapshot current = snapshot.get();
+                log.warn("JWK set refresh failed, serving keys fetched at {}: {}",
+                        current != null ? current.fetchedAt() : "never", ex.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public synchronized void start() {
+        long periodMillis = properties.refreshInterval().toMillis();
+        executor.scheduleWithFixedDelay(this::refreshInBackground, 0, periodMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        executor.shutdownNow();
+        CompletableFuture<JWKSet> pending = inFlight.getAndSet(null);
+        if (pending != null) {
+            pending.completeExceptionally(new IllegalStateException("JWK set store stopped"));
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Snapshot(JWKSet keys, Instant fetchedAt) {
+
+        boolean isExpired(Instant now, Duration maxStaleness) {
+            return fetchedAt.plus(maxStaleness).isBefore(now);
+        }
+    }
+}
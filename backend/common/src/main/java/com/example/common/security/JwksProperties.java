@@ -0,0 +1,20 @@
+package com.example.common.security;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Refresh policy of the {@link JwksKeyStore}: keys are refreshed every {@code refreshInterval} in the background,
+ * and an unknown key id triggers an extra refresh at most once per {@code minRefreshInterval}. While Keycloak is
+ * unreachable the last keys are served until they are {@code maxStaleness} old.
+ * <p>
+ * Each service binds it under its own prefix, {@code gateway.jwks} or {@code users.security.jwks}.
+ */
+public record JwksProperties(
+        @DefaultValue("5m") Duration refreshInterval,
+        @DefaultValue("30s") Duration minRefreshInterval,
+        @DefaultValue("1h") Duration maxStaleness,
+        @DefaultValue("2s") Duration timeout
+) {
+}
@@ -0,0 +1,88 @@
+package com.example.common.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Maps a token's Keycloak realm roles ({@code realm_access.roles}) to Spring Security authorities (ROLE_*) and their
+ * comma-joined {@code X-User-Roles} header value. Each service wraps it in the converter its resource server takes.
+ * <p>
+ * Realm role lists repeat across nearly every token, so the results are cached by role list and each authority is
+ * interned once. A cache hit allocates nothing.
+ */
+public class KeycloakRealmRoles {
+
+    public static final int MAX_CACHED_ROLE_LISTS = 1_000;
+    public static final int MAX_INTERNED_AUTHORITIES = 10_000;
+
+    private static final RealmRoles NO_ROLES = new RealmRoles(Set.of(), "");
+
+    private final Cache<List<?>, RealmRoles> rolesByRoleList = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_ROLE_LISTS)
+            .build();
+    private final ConcurrentMap<String, GrantedAuthority> authoritiesByRole = new ConcurrentHashMap<>();
+
+    public RealmRoles realmRoles(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+        if (realmAccess == null || realmAccess.isEmpty()) {
+            return NO_ROLES;
+        }
+        Object roles = realmAccess.get("roles");
+        if (!(roles instanceof List<?> roleList)) {
+            return NO_ROLES;
+        }
+        RealmRoles realmRoles = rolesByRoleList.getIfPresent(roleList);
+        if (realmRoles == null) {
+            realmRoles = toRealmRoles(roleList);
+            // keyed by a copy so a caller mutating its claim list cannot corrupt the cache
+            rolesByRoleList.put(Collections.unmodifiableList(new ArrayList<>(roleList)), realmRoles);
+        }
+        return realmRoles;
+    }
+
+    private RealmRoles toRealmRoles(List<?> roleList) {
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        for (Object role : roleList) {
+            if (role instanceof String name) {
+                authorities.add(authority(name));
+            }
+        }
+        String header = authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+        return new RealmRoles(Collections.unmodifiableSet(authorities), header);
+    }
+
+    private GrantedAuthority authority(String role) {
+        GrantedAuthority authority = authoritiesByRole.get(role);
+        if (authority != null) {
+            return authority;
+        }
+        authority = new SimpleGrantedAuthority("ROLE_" + role.toUpperCase(Locale.ROOT));
+        if (authoritiesByRole.size() < MAX_INTERNED_AUTHORITIES) {
+            authoritiesByRole.putIfAbsent(role, authority);
+        }
+        return authority;
+    }
+
+    /**
+     * Authorities for one realm role list, in token order, and their comma-joined header value.
+     */
+    public record RealmRoles(Set<GrantedAuthority> authorities, String header) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.tracing;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Which recorded traces {@link TailSamplingSpanExporter} exports: all whose root span in this service took at least
+ * {@code slowThreshold} or that failed, and otherwise the {@code probability} share of trace ids. Spans are held for
+ * at most {@code traceTimeout} waiting for their root, for up to {@code maxTraces} traces at a time.
+ * <p>
+ * Each service binds it under its own prefix, {@code gateway.tracing.tail-sampling} or
+ * {@code users.tracing.tail-sampling}.
+ */
+public record TailSamplingProperties(
+        @DefaultValue("500ms") Duration slowThreshold,
+        @DefaultValue("0.1") double probability,
+        @DefaultValue("1m") Duration traceTimeout,
+        @DefaultValue("10000") long maxTraces
+) {
+}
@@ -0,0 +1,110 @@
+package com.example.common.tracing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Decides per trace rather than per span whether to export, once the trace's root span in this service has ended:
+ * spans ending before it are held back, and spans ending after it follow the decision made. A trace is kept when its
+ * root took at least the slow threshold, when any of its spans failed, or when its trace id falls in the sampled
+ * share. Every service exporting through it reads the trace id the same way, so a trace kept for its id is kept by
+ * all of them.
+ * <p>
+ * Called by a single batch span processor thread; held spans whose root never ends are dropped after the trace
+ * timeout.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+    private final SpanExporter delegate;
+    private final long slowThresholdNanos;
+    private final double probability;
+    private final long traceIdBound;
+    private final Cache<String, List<SpanData>> heldSpans;
+    private final Cache<String, Boolean> decisions;
+
+    public TailSamplingSpanExporter(SpanExporter delegate, TailSamplingProperties properties) {
+        this.delegate = delegate;
+        this.slowThresholdNanos = properties.slowThreshold().toNanos();
+        this.probability = properties.probability();
+        this.traceIdBound = (long) (properties.probability() * Long.MAX_VALUE);
+        this.heldSpans = Caffeine.newBuilder()
+                .maximumSize(properties.maxTraces())
+                .expireAfterWrite(properties.traceTimeout())
+                .build();
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(properties.maxTraces())
+                .expireAfterWrite(properties.traceTimeout())
+                .build();
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        List<SpanData> kept = new ArrayList<>();
+        for (SpanData span : spans) {
+            Boolean keep = decisions.getIfPresent(span.getTraceId());
+            if (keep != null) {
+                if (keep) {
+                    kept.add(span);
+                }
+            } else if (!isLocalRoot(span)) {
+                heldSpans.get(span.getTraceId(), traceId -> new ArrayList<>()).add(span);
+            } else {
+                List<SpanData> held = heldSpans.asMap().remove(span.getTraceId());
+                keep = isSlow(span) || failed(span) || (held != null && held.stream().anyMatch(this::failed))
+                        || isSampled(span.getTraceId());
+                decisions.put(span.getTraceId(), keep);
+                if (keep) {
+                    if (held != null) {
+                        kept.addAll(held);
+                    }
+                    kept.add(span);
+                }
+            }
+        }
+        return kept.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(kept);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return delegate.shutdown();
+    }
+
+    private boolean isSlow(SpanData span) {
+        return span.getEndEpochNanos() - span.getStartEpochNanos() >= slowThresholdNanos;
+    }
+
+    private boolean failed(SpanData span) {
+        return span.getStatus().getStatusCode() == StatusCode.ERROR;
+    }
+
+    /**
+     * Compares the random low 63 bits of the trace id, so the same traces are sampled wherever they are decided.
+     */
+    boolean isSampled(String traceId) {
+        if (probability >= 1.0) {
+            return true;
+        }
+        long random = Long.parseUnsignedLong(traceId.substring(16), 16) & Long.MAX_VALUE;
+        return random < traceIdBound;
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        SpanContext parent = span.getParentSpanContext();
+        return !parent.isValid() || parent.isRemote();
+    }
+}
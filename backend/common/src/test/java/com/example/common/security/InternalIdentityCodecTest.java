@@ -0,0 +1,73 @@
+package com.example.common.security;
+
+import com.example.common.security.InternalIdentityCodec.InternalIdentity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Internal Identity Codec Tests")
+class InternalIdentityCodecTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    private static final Instant NOW = Instant.parse("2030-01-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final InternalIdentityCodec codec =
+            new InternalIdentityCodec(SECRET, objectMapper, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("Should decode what it encoded")
+    void shouldRoundTrip() {
+        // Given
+        String value = codec.encode("test-subject", NOW.plusSeconds(300), List.of("user", "admin"));
+
+        // When
+        InternalIdentity identity = codec.decode(value);
+
+        // Then
+        assertThat(identity).isEqualTo(new InternalIdentity("test-subject", NOW.plusSeconds(300), List.of("user", "admin")));
+    }
+
+    @Test
+    @DisplayName("Should reject a value signed with another secret")
+    void shouldRejectForeignSignature() {
+        // Given
+        String value = new InternalIdentityCodec("fedcba9876543210fedcba9876543210", objectMapper)
+                .encode("test-subject", NOW.plusSeconds(300), List.of("admin"));
+
+        // When/Then
+        assertThatThrownBy(() -> codec.decode(value))
+                .isInstanceOf(BadJwtException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    @DisplayName("Should accept an identity expired within the clock skew and reject one beyond it")
+    void shouldAllowClockSkewOnExpiry() {
+        // Given
+        String withinSkew = codec.encode("test-subject", NOW.minus(InternalIdentityCodec.CLOCK_SKEW).plusSeconds(1), List.of());
+        String beyondSkew = codec.encode("test-subject", NOW.minus(InternalIdentityCodec.CLOCK_SKEW), List.of());
+
+        // When/Then
+        assertThat(codec.decode(withinSkew).subject()).isEqualTo("test-subject");
+        assertThatThrownBy(() -> codec.decode(beyondSkew))
+                .isInstanceOf(BadJwtException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    @DisplayName("Should reject a short secret")
+    void shouldRejectShortSecret() {
+        assertThatThrownBy(() -> new InternalIdentityCodec("too-short", objectMapper))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
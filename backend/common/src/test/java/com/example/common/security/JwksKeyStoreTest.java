@@ -0,0 +1,190 @@
+package com.example.common.security;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("JwksKeyStore Tests")
+class JwksKeyStoreTest {
+
+    private static final JwksProperties PROPERTIES =
+            new JwksProperties(Duration.ofMinutes(5), Duration.ofSeconds(30), Duration.ofHours(1), Duration.ofSeconds(2));
+
+    private static RSAKey key1;
+    private static RSAKey key2;
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.now());
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicReference<JWKSet> served = new AtomicReference<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private volatile boolean unavailable;
+
+    private HttpServer jwksServer;
+    private JwksKeyStore keyStore;
+    private DefaultJWTProcessor<SecurityContext> processor;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        key1 = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        key2 = new RSAKeyGenerator(2048).keyID("key-2").generate();
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        served.set(new JWKSet(key1.toPublicJWK()));
+        jwksServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        jwksServer.createContext("/certs", this::serveJwks);
+        jwksServer.start();
+
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now.get());
+        URI jwkSetUri = URI.create("http://localhost:" + jwksServer.getAddress().getPort() + "/certs");
+        keyStore = new JwksKeyStore(jwkSetUri.toURL(), PROPERTIES, clock);
+        // verifies the way both services' decoders do, with the store as the key source
+        processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keyStore));
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyStore.stop();
+        jwksServer.stop(0);
+    }
+
+    @Test
+    @DisplayName("Should prefetch keys on start so the first token needs no fetch")
+    void shouldPrefetchKeysOnStart() throws Exception {
+        // When
+        keyStore.start();
+        keyStore.refresh().get(5, TimeUnit.SECONDS);
+        processor.process(token(key1), null);
+        processor.process(token(key1), null);
+
+        // Then
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent refreshes into one fetch")
+    void shouldCoalesceConcurrentRefreshes() throws Exception {
+        // Given
+        release = new CountDownLatch(1);
+
+        // When
+        List<CompletableFuture<JWKSet>> refreshes = IntStream.range(0, 16).parallel()
+                .mapToObj(i -> keyStore.refresh())
+                .toList();
+        release.countDown();
+        CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(refreshes).allSatisfy(refresh -> assertThat(refresh).isSameAs(refreshes.get(0)));
+        assertThat(fetches).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should serve stale keys while the issuer is down, up to the staleness bound")
+    void shouldServeStaleKeysWithinBound() throws Exception {
+        // Given
+        keyStore.refresh().get(5, TimeUnit.SECONDS);
+        unavailable = true;
+
+        // When: past the refresh interval, the failed refresh does not affect validation
+        now.set(now.get().plus(Duration.ofMinutes(30)));
+        assertThatThrownBy(() -> keyStore.refresh().join()).hasCauseInstanceOf(IOException.class);
+
+        // Then
+        assertThat(processor.process(token(key1), null).getSubject()).isEqualTo("test-subject");
+        now.set(now.get().plus(Duration.ofMinutes(31)));
+        assertThatThrownBy(() -> processor.process(token(key1), null)).isInstanceOf(KeySourceException.class);
+    }
+
+    @Test
+    @DisplayName("Should refresh once, rate-limited, for a token signed by a rotated key")
+    void shouldRefreshForUnknownKeyId() throws Exception {
+        // Given
+        keyStore.refresh().get(5, TimeUnit.SECONDS);
+        served.set(new JWKSet(List.of(key1.toPublicJWK(), key2.toPublicJWK())));
+
+        // When
+        processor.process(token(key2), null);
+        processor.process(token(key2), null);
+
+        // Then
+        assertThat(fetches).hasValue(2);
+        RSAKey unknown = new RSAKeyGenerator(2048).keyID("key-3").generate();
+        assertThatThrownBy(() -> processor.process(token(unknown), null)).isInstanceOf(BadJOSEException.class);
+        assertThat(fetches).hasValue(2);
+    }
+
+    private void serveJwks(HttpExchange exchange) throws IOException {
+        fetches.incrementAndGet();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (unavailable) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = served.get().toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String token(RSAKey key) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .subject("test-subject")
+                .issueTime(Date.from(now.get()))
+                .expirationTime(Date.from(now.get().plus(Duration.ofHours(2))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
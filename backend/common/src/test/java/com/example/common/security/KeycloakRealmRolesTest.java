@@ -0,0 +1,78 @@
+package com.example.common.security;
+
+import com.example.common.security.KeycloakRealmRoles.RealmRoles;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KeycloakRealmRoles Tests")
+class KeycloakRealmRolesTest {
+
+    private final KeycloakRealmRoles realmRoles = new KeycloakRealmRoles();
+
+    @Test
+    @DisplayName("Should map string realm roles to ROLE_ authorities in token order with their header value")
+    void shouldMapRealmRoles() {
+        // When
+        RealmRoles roles = realmRoles.realmRoles(jwt(Map.of("roles", List.of("user", "Admin", 42))));
+
+        // Then
+        assertThat(roles.authorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(roles.header()).isEqualTo("ROLE_USER,ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should return no roles without a realm role list")
+    void shouldReturnNoRolesWithoutRoleList() {
+        assertThat(realmRoles.realmRoles(jwt(Map.of())).authorities()).isEmpty();
+        assertThat(realmRoles.realmRoles(jwt(Map.of("roles", "user"))).header()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reuse the immutable result and interned authorities for repeated role lists")
+    void shouldReuseCachedRoles() {
+        // Given
+        RealmRoles first = realmRoles.realmRoles(jwt(Map.of("roles", List.of("user", "admin"))));
+
+        // When
+        RealmRoles second = realmRoles.realmRoles(jwt(Map.of("roles", new ArrayList<>(List.of("user", "admin")))));
+        RealmRoles other = realmRoles.realmRoles(jwt(Map.of("roles", List.of("user"))));
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(other.authorities().iterator().next()).isSameAs(first.authorities().iterator().next());
+        assertThatThrownBy(() -> first.authorities().clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should not be affected by later changes to the claim list")
+    void shouldCopyRoleListUsedAsCacheKey() {
+        // Given
+        List<Object> roles = new ArrayList<>(List.of("user"));
+        realmRoles.realmRoles(jwt(Map.of("roles", roles)));
+
+        // When
+        roles.add("admin");
+
+        // Then
+        assertThat(realmRoles.realmRoles(jwt(Map.of("roles", List.of("user")))).header()).isEqualTo("ROLE_USER");
+        assertThat(realmRoles.realmRoles(jwt(Map.of("roles", roles))).header()).isEqualTo("ROLE_USER,ROLE_ADMIN");
+    }
+
+    private static Jwt jwt(Map<String, Object> realmAccess) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-subject")
+                .claim("realm_access", realmAccess)
+                .build();
+    }
+}
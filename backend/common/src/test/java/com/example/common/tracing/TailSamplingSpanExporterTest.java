@@ -0,0 +1,118 @@
+package com.example.common.tracing;
+
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.testing.trace.TestSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.StatusData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("TailSamplingSpanExporter Tests")
+class TailSamplingSpanExporterTest {
+
+    // low 63 bits: 0x0000000000000001 is sampled at any probability above zero, 0x7fff... at none below one
+    private static final String SAMPLED_TRACE = "0af7651916cd43dd0000000000000001";
+    private static final String UNSAMPLED_TRACE = "0af7651916cd43dd7fffffffffffffff";
+    private static final String REMOTE_SPAN = "b7ad6b7169203331";
+
+    private final InMemorySpanExporter collector = InMemorySpanExporter.create();
+    private TailSamplingSpanExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new TailSamplingSpanExporter(collector,
+                new TailSamplingProperties(Duration.ofMillis(500), 0.1, Duration.ofMinutes(1), 100));
+    }
+
+    @Test
+    @DisplayName("Should hold a trace's spans until its root decides, and export them all when it is slow")
+    void shouldExportSlowTraceWhole() {
+        // Given
+        SpanData statement = span(UNSAMPLED_TRACE, "0000000000000003", "0000000000000002", 5, StatusData.unset());
+        SpanData service = span(UNSAMPLED_TRACE, "0000000000000002", "0000000000000001", 10, StatusData.unset());
+        exporter.export(List.of(statement, service));
+        assertThat(collector.getFinishedSpanItems()).isEmpty();
+
+        // When
+        SpanData root = span(UNSAMPLED_TRACE, "0000000000000001", REMOTE_SPAN, 600, StatusData.unset());
+        exporter.export(List.of(root));
+
+        // Then
+        assertThat(collector.getFinishedSpanItems()).containsExactly(statement, service, root);
+    }
+
+    @Test
+    @DisplayName("Should drop a fast, successful trace outside the sampled share, including its late spans")
+    void shouldDropFastUnsampledTrace() {
+        // Given
+        SpanData service = span(UNSAMPLED_TRACE, "0000000000000002", "0000000000000001", 10, StatusData.unset());
+        SpanData root = span(UNSAMPLED_TRACE, "0000000000000001", REMOTE_SPAN, 20, StatusData.unset());
+
+        // When
+        exporter.export(List.of(service, root));
+        exporter.export(List.of(span(UNSAMPLED_TRACE, "0000000000000004", "0000000000000001", 1, StatusData.unset())));
+
+        // Then
+        assertThat(collector.getFinishedSpanItems()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should export a fast trace that failed anywhere")
+    void shouldExportFailedTrace() {
+        // Given
+        SpanData statement = span(UNSAMPLED_TRACE, "0000000000000002", "0000000000000001", 5, StatusData.error());
+        SpanData root = span(UNSAMPLED_TRACE, "0000000000000001", SpanContext.getInvalid().getSpanId(), 20,
+                StatusData.unset());
+
+        // When
+        exporter.export(List.of(statement, root));
+
+        // Then
+        assertThat(collector.getFinishedSpanItems()).containsExactly(statement, root);
+    }
+
+    @Test
+    @DisplayName("Should export a fast trace whose id falls in the sampled share")
+    void shouldExportSampledTrace() {
+        // Given
+        SpanData root = span(SAMPLED_TRACE, "0000000000000001", REMOTE_SPAN, 20, StatusData.unset());
+
+        // When
+        exporter.export(List.of(root));
+
+        // Then
+        assertThat(collector.getFinishedSpanItems()).containsExactly(root);
+        assertThat(exporter.isSampled(UNSAMPLED_TRACE)).isFalse();
+    }
+
+    private static SpanData span(String traceId, String spanId, String parentSpanId, long millis, StatusData status) {
+        boolean remoteParent = REMOTE_SPAN.equals(parentSpanId);
+        SpanContext parent = remoteParent
+                ? SpanContext.createFromRemoteParent(traceId, parentSpanId, TraceFlags.getSampled(), TraceState.getDefault())
+                : SpanContext.create(traceId, parentSpanId, TraceFlags.getSampled(), TraceState.getDefault());
+        long start = TimeUnit.SECONDS.toNanos(1_700_000_000L);
+        return TestSpanData.builder()
+                .setName("span-" + spanId)
+                .setKind(remoteParent ? SpanKind.SERVER : SpanKind.INTERNAL)
+                .setSpanContext(SpanContext.create(traceId, spanId, TraceFlags.getSampled(), TraceState.getDefault()))
+                .setParentSpanContext(parent)
+                .setStartEpochNanos(start)
+                .setEndEpochNanos(start + TimeUnit.MILLISECONDS.toNanos(millis))
+                .setStatus(status)
+                .setHasEnded(true)
+                .setTotalRecordedEvents(0)
+                .setTotalRecordedLinks(0)
+                .build();
+    }
+}
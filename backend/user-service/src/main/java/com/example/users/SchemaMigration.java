@@ -0,0 +1,33 @@
+package com.example.users;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Applies the Flyway migrations in {@code db/migration} and {@code db/vendor} with the service's own configuration and
+ * exits, without starting the service. Deploys run it once, before rolling out pods that start with
+ * {@code USERS_FLYWAY_ENABLED=false}:
+ * <pre>
+ * java -Dloader.main=com.example.users.SchemaMigration -cp app.jar org.springframework.boot.loader.launch.PropertiesLauncher
+ * </pre>
+ */
+public final class SchemaMigration {
+
+    private SchemaMigration() {
+    }
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class)
+                .web(WebApplicationType.NONE)
+                // the pods' USERS_FLYWAY_ENABLED=false may be set here too
+                .initializers(context -> context.getEnvironment().getPropertySources().addFirst(
+                        new MapPropertySource("schemaMigration", Map.of("spring.flyway.enabled", true))))
+                .run(args)
+                .close();
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.users.cache;
+
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Size and TTL bounded cache of {@link UserAccountResponse} keyed by JWT subject, plus the last known version of
+ * the whole table for conditional listing requests.
+ * <p>
+ * A miss installs a future under the key and the calling thread runs the load outside of the map's locks, so
+ * a virtual thread waiting on the database never pins its carrier; concurrent misses for the key wait on that
+ * future. Invalidation happens only after the writing transaction commits and discards an in-flight load, whose
+ * result then reaches only the callers already waiting for it. A read that starts after a write has returned
+ * therefore never sees the old row.
+ * <p>
+ * With a read replica, the cache also remembers which subjects it invalidated within the last
+ * {@code recentWriteWindow}, so that their reload can be sent to the primary rather than to a replica which may
+ * not have replayed the write yet and would put the old row back into the cache.
+ */
+public class UserAccountCache implements MeterBinder {
+
+    static final String CACHE_NAME = "users.by-subject";
+    private static final long UNKNOWN_VERSION = -1;
+
+    private final AsyncCache<String, UserAccountResponse> bySubject;
+    private final AtomicLong listingVersion = new AtomicLong(UNKNOWN_VERSION);
+    private final Duration recentWriteWindow;
+    // expires, but is never evicted by size: forgetting a write early would let a stale replica serve it
+    private final Cache<String, Boolean> recentlyChanged;
+    private volatile long lastChangeNanos;
+    private volatile long lastInvalidateAllNanos;
+
+    public UserAccountCache(long maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, Duration.ZERO);
+    }
+
+    public UserAccountCache(long maximumSize, Duration timeToLive, Duration recentWriteWindow) {
+        this.bySubject = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .buildAsync();
+        this.recentWriteWindow = recentWriteWindow;
+        this.recentlyChanged = recentWriteWindow.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(recentWriteWindow)
+                .build();
+        this.lastChangeNanos = System.nanoTime() - recentWriteWindow.toNanos();
+        this.lastInvalidateAllNanos = lastChangeNanos;
+    }
+
+    /**
+     * Reads inside a read-write transaction bypass the cache, since they may observe that transaction's
+     * uncommitted (and possibly rolled back) writes.
+     */
+    public UserAccountResponse get(String subject, Function<String, UserAccountResponse> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return loader.apply(subject);
+        }
+        CompletableFuture<UserAccountResponse> load = new CompletableFuture<>();
+        CompletableFuture<UserAccountResponse> cached = bySubject.get(subject, (key, executor) -> load);
+        if (cached == load) {
+            try {
+                load.complete(loader.apply(subject));
+            } catch (RuntimeException | Error ex) {
+                load.completeExceptionally(ex);
+            }
+        }
+        try {
+            return cached.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #get(String, Function)} for loaders that are themselves non-blocking. A
+     * subscriber cancelling does not cancel the load, which other callers may be waiting for.
+     */
+    public Mono<UserAccountResponse> getAsync(String subject, Function<String, Mono<UserAccountResponse>> loader) {
+        return Mono.defer(() -> Mono.fromFuture(
+                bySubject.get(subject, (key, executor) -> loader.apply(key).toFuture()), true));
+    }
+
+    public void invalidate(String subject) {
+        if (recentlyChanged != null) {
+            recentlyChanged.put(subject, Boolean.TRUE);
+            lastChangeNanos = System.nanoTime();
+        }
+        bySubject.synchronous().invalidate(subject);
+    }
+
+    public void invalidateAll() {
+        if (recentlyChanged != null) {
+            lastInvalidateAllNanos = System.nanoTime();
+            lastChangeNanos = lastInvalidateAllNanos;
+        }
+        bySubject.synchronous().invalidateAll();
+    }
+
+    /**
+     * Whether this cache learned of a committed write to {@code subject}, or of writes to unknown subjects,
+     * within the recent-write window. Always false without a window.
+     */
+    public boolean changedRecently(String subject) {
+        return recentlyChanged != null
+                && (isRecent(lastInvalidateAllNanos) || recentlyChanged.getIfPresent(subject) != null);
+    }
+
+    /**
+     * Whether this cache learned of a committed write to any account within the recent-write window.
+     */
+    public boolean changedRecently() {
+        return recentlyChanged != null && isRecent(lastChangeNanos);
+    }
+
+    private boolean isRecent(long nanos) {
+        return System.nanoTime() - nanos < recentWriteWindow.toNanos();
+    }
+
+    /**
+     * The table version every replica shares, as last learned from the database, or {@code null} while it is
+     * unknown: always without a broadcast, which is the only way to learn of other replicas' writes. Read it
+     * before querying: a write landing in between then yields a fresher body under an older version, which only
+     * costs the client one extra full response.
+     */
+    public String listingVersion() {
+        long version = listingVersion.get();
+        return version == UNKNOWN_VERSION ? null : Long.toString(version);
+    }
+
+    /**
+     * Versions arrive out of order, from this replica's own commits and from the broadcast, so the highest wins.
+     * Ignored while the version is unknown, since other replicas' writes may have gone unnoticed.
+     */
+    public void advanceListingVersion(long version) {
+        listingVersion.updateAndGet(current -> current == UNKNOWN_VERSION ? current : Math.max(current, version));
+    }
+
+    /**
+     * Called with the version read from the database once no further write can go unnoticed.
+     */
+    public void restoreListingVersion(long version) {
+        listingVersion.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Called when writes may go unnoticed, until {@link #restoreListingVersion(long)}.
+     */
+    public void forgetListingVersion() {
+        listingVersion.set(UNKNOWN_VERSION);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        event.subjects().forEach(this::invalidate);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, bySubject.synchronous(), CACHE_NAME);
+    }
+}
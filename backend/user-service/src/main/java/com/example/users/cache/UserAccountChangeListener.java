@@ -0,0 +1,121 @@
+package com.example.users.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Subscribes to {@link UserAccountChangeNotifier#CHANNEL}, evicts the matching subjects from the local cache and
+ * advances its listing version.
+ * <p>
+ * Uses its own long-lived connection rather than one borrowed from the Hikari pool, so it neither takes a
+ * pool slot nor trips leak detection. Notifications sent while disconnected are lost, so every
+ * (re)connect flushes the whole cache and reads the listing version afresh before resuming.
+ */
+@Slf4j
+public class UserAccountChangeListener implements SmartLifecycle {
+
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(2);
+    // no row until the first broadcast write creates it
+    private static final String CURRENT_VERSION = "SELECT COALESCE(MAX(version), 0) FROM user_account_listing";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final UserAccountCache cache;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public UserAccountChangeListener(String url, String username, String password, UserAccountCache cache) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.cache = cache;
+    }
+
+    @Override
+    public synchronized void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("user-cache-invalidation")
+                .daemon()
+                .start(this::listenUntilStopped);
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(RECONNECT_DELAY.toMillis() + POLL_TIMEOUT_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenUntilStopped() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + UserAccountChangeNotifier.CHANNEL);
+                    cache.invalidateAll();
+                    try (ResultSet rs = statement.executeQuery(CURRENT_VERSION)) {
+                        rs.next();
+                        cache.restoreListingVersion(rs.getLong(1));
+                    }
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            onNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException ex) {
+                if (running) {
+                    log.warn("Cache invalidation channel lost, reconnecting in {}", RECONNECT_DELAY, ex);
+                    cache.invalidateAll();
+                    cache.forgetListingVersion();
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    /**
+     * @param payload {@code version:subject}, split at the first colon since subjects may contain one
+     */
+    private void onNotification(String payload) {
+        int separator = payload.indexOf(':');
+        cache.advanceListingVersion(Long.parseLong(payload, 0, separator, 10));
+        cache.invalidate(payload.substring(separator + 1));
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.users.cache;
+
+import com.example.users.service.UserAccountChangedEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+
+/**
+ * Broadcasts account changes to every replica with PostgreSQL {@code NOTIFY}, one {@code version:subject}
+ * notification per subject.
+ * <p>
+ * The notifications are issued right before the writing transaction commits, on its own connection and in a
+ * single statement however many subjects it changed. PostgreSQL only delivers them once that transaction commits,
+ * so a rolled back write never invalidates anything. The same statement bumps the shared listing version; its row
+ * stays locked until the commit, so versions follow the commit order.
+ */
+public class UserAccountChangeNotifier {
+
+    public static final String CHANNEL = "user_account_changed";
+
+    private static final String NOTIFY_ALL = """
+            WITH listing AS (
+                INSERT INTO user_account_listing (id, version) VALUES (1, 1)
+                ON CONFLICT (id) DO UPDATE SET version = user_account_listing.version + 1
+                RETURNING version)
+            SELECT listing.version, pg_notify(?, listing.version || ':' || subject)
+            FROM listing, unnest(?::text[]) AS subject""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserAccountCache cache;
+
+    public UserAccountChangeNotifier(JdbcTemplate jdbcTemplate, UserAccountCache cache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = cache;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAccountChanged(UserAccountChangedEvent event) {
+        Long version = jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(NOTIFY_ALL);
+            statement.setString(1, CHANNEL);
+            statement.setArray(2, connection.createArrayOf("text", event.subjects().toArray()));
+            return statement;
+        }, (ResultSetExtractor<Long>) rs -> rs.next() ? rs.getLong(1) : null);
+        if (version == null) {
+            return;
+        }
+        // this replica's own listings reflect the write as soon as it returns, not once the notification is back
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.advanceListingVersion(version);
+                }
+            });
+        } else {
+            cache.advanceListingVersion(version);
+        }
+    }
+}
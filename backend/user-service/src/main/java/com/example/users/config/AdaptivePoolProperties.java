@@ -0,0 +1,25 @@
+package com.example.users.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds and targets of the {@link AdaptivePoolSizer}. Every {@code interval} the primary pool grows by
+ * {@code step} connections while borrowers wait longer than {@code targetAcquireTime} on average, and shrinks
+ * while connections are held longer than {@code maxUsageTime} on average, not counting those held on purpose,
+ * i.e. while the database itself is the bottleneck, or while at most half of them are in use. It stays within {@code minimumSize} and
+ * {@code maximumSize}.
+ */
+@ConfigurationProperties("users.datasource.adaptive-pool")
+public record AdaptivePoolProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("5") int minimumSize,
+        @DefaultValue("40") int maximumSize,
+        @DefaultValue("2") int step,
+        @DefaultValue("10s") Duration interval,
+        @DefaultValue("5ms") Duration targetAcquireTime,
+        @DefaultValue("100ms") Duration maxUsageTime
+) {
+}
@@ -0,0 +1,167 @@
+package com.example.users.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resizes the primary Hikari pool at runtime within {@link AdaptivePoolProperties}' bounds.
+ * <p>
+ * Decisions are taken from the pool's own Micrometer timers over the last interval: the mean time to acquire a
+ * connection (plus the number of threads currently waiting) says whether the pool is too small, the mean time a
+ * connection is held says whether the database is keeping up. Connections held on purpose for long, such as an
+ * NDJSON export's cursor, are left out of that mean, see {@link LongHeldConnections}. Without the pool's timers the
+ * pool is left alone.
+ */
+@Slf4j
+public class AdaptivePoolSizer implements SmartLifecycle {
+
+    static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+    static final String USAGE_TIMER = "hikaricp.connections.usage";
+
+    private final HikariConfigMXBean config;
+    private final HikariPoolMXBean pool;
+    private final ConnectionLimitingDataSource limiter;
+    private final MeterRegistry meterRegistry;
+    private final AdaptivePoolProperties properties;
+    private final int configuredMinimumIdle;
+
+    private ScheduledExecutorService executor;
+    private Sample lastSample;
+    private volatile boolean running;
+
+    public AdaptivePoolSizer(DataSource dataSource, MeterRegistry meterRegistry, AdaptivePoolProperties properties)
+            throws SQLException {
+        this(dataSource.unwrap(HikariDataSource.class).getHikariConfigMXBean(),
+                dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean(),
+                dataSource.isWrapperFor(ConnectionLimitingDataSource.class)
+                        ? dataSource.unwrap(ConnectionLimitingDataSource.class)
+                        : null,
+                meterRegistry, properties);
+    }
+
+    AdaptivePoolSizer(HikariConfigMXBean config, HikariPoolMXBean pool, ConnectionLimitingDataSource limiter,
+                      MeterRegistry meterRegistry, AdaptivePoolProperties properties) {
+        this.config = config;
+        this.pool = pool;
+        this.limiter = limiter;
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.configuredMinimumIdle = config.getMinimumIdle();
+    }
+
+    synchronized void adjust() {
+        Timer acquire = timer(ACQUIRE_TIMER);
+        Timer usage = timer(USAGE_TIMER);
+        if (acquire == null || usage == null) {
+            return;
+        }
+        Timer held = timer(LongHeldConnections.HELD_TIMER);
+        Sample sample = new Sample(acquire.count(), acquire.totalTime(TimeUnit.NANOSECONDS),
+                usage.count() - (held != null ? held.count() : 0),
+                usage.totalTime(TimeUnit.NANOSECONDS) - (held != null ? held.totalTime(TimeUnit.NANOSECONDS) : 0));
+        Sample previous = lastSample;
+        lastSample = sample;
+        if (previous == null) {
+            return;
+        }
+        long acquireNanos = sample.meanAcquireNanosSince(previous);
+        long usageNanos = sample.meanUsageNanosSince(previous);
+        int waiting = pool.getThreadsAwaitingConnection() + (limiter != null ? limiter.waiting() : 0);
+        int size = config.getMaximumPoolSize();
+        int target = targetSize(size, acquireNanos, usageNanos, waiting, pool.getActiveConnections());
+        if (target != size) {
+            log.info("Resizing {} from {} to {} connections (mean acquire {}us, mean short usage {}us, {} waiting)",
+                    config.getPoolName(), size, target, acquireNanos / 1000, usageNanos / 1000, waiting);
+            resize(target);
+        }
+    }
+
+    int targetSize(int size, long acquireNanos, long usageNanos, int waiting, int active) {
+        int target;
+        if (usageNanos > properties.maxUsageTime().toNanos()) {
+            // the database is the bottleneck; more connections would only queue inside it
+            target = size - properties.step();
+        } else if (acquireNanos > properties.targetAcquireTime().toNanos() || waiting > 0) {
+            target = size + properties.step();
+        } else if (active <= size / 2) {
+            target = size - 1;
+        } else {
+            target = size;
+        }
+        return Math.clamp(target, properties.minimumSize(), properties.maximumSize());
+    }
+
+    private void resize(int size) {
+        if (size > config.getMaximumPoolSize()) {
+            config.setMaximumPoolSize(size);
+            config.setMinimumIdle(Math.min(configuredMinimumIdle, size));
+        } else {
+            config.setMinimumIdle(Math.min(configuredMinimumIdle, size));
+            config.setMaximumPoolSize(size);
+        }
+        if (limiter != null) {
+            limiter.resize(size);
+        }
+    }
+
+    private Timer timer(String name) {
+        return meterRegistry.find(name).tag("pool", config.getPoolName()).timer();
+    }
+
+    @Override
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("adaptive-pool-sizer").daemon().factory());
+        long intervalMillis = properties.interval().toMillis();
+        executor.scheduleWithFixedDelay(this::adjustSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void adjustSafely() {
+        try {
+            adjust();
+        } catch (RuntimeException ex) {
+            log.warn("Adaptive pool sizing failed", ex);
+        }
+    }
+
+    private record Sample(long acquireCount, double acquireNanos, long usageCount, double usageNanos) {
+
+        long meanAcquireNanosSince(Sample previous) {
+            return mean(acquireNanos - previous.acquireNanos, acquireCount - previous.acquireCount);
+        }
+
+        long meanUsageNanosSince(Sample previous) {
+            return mean(usageNanos - previous.usageNanos, usageCount - previous.usageCount);
+        }
+
+        private static long mean(double totalNanos, long count) {
+            return count > 0 ? (long) (totalNanos / count) : 0;
+        }
+    }
+}
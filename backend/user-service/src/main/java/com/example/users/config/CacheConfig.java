@@ -0,0 +1,54 @@
+package com.example.users.config;
+
+import com.example.users.cache.UserAccountCache;
+import com.example.users.cache.UserAccountChangeListener;
+import com.example.users.cache.UserAccountChangeNotifier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(UserCacheProperties.class)
+public class CacheConfig {
+
+    /**
+     * With a read replica, the cache also tracks recent writes for as long as the replica may lag behind them.
+     */
+    @Bean
+    public UserAccountCache userAccountCache(UserCacheProperties properties,
+                                             ObjectProvider<ReadReplicaProperties> readReplicaProperties) {
+        ReadReplicaProperties readReplica = readReplicaProperties.getIfAvailable();
+        Duration recentWriteWindow = readReplica != null ? readReplica.readYourWritesWindow() : Duration.ZERO;
+        return new UserAccountCache(properties.maximumSize(), properties.timeToLive(), recentWriteWindow);
+    }
+
+    /**
+     * Keeps the caches of all replicas coherent over PostgreSQL LISTEN/NOTIFY; requires a PostgreSQL datasource.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "users.cache.broadcast", havingValue = "true")
+    static class BroadcastConfig {
+
+        @Bean
+        public UserAccountChangeNotifier userAccountChangeNotifier(JdbcTemplate jdbcTemplate,
+                                                                   UserAccountCache cache) {
+            return new UserAccountChangeNotifier(jdbcTemplate, cache);
+        }
+
+        @Bean
+        public UserAccountChangeListener userAccountChangeListener(DataSourceProperties dataSourceProperties,
+                                                                   UserAccountCache cache) {
+            return new UserAccountChangeListener(
+                    dataSourceProperties.getUrl(),
+                    dataSourceProperties.getUsername(),
+                    dataSourceProperties.getPassword(),
+                    cache);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.users.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lets at most as many threads into the pool as it has connections and queues the rest on a fair semaphore.
+ * <p>
+ * Used with virtual threads: thousands of requests may need a connection at once, and every thread waiting inside
+ * Hikari spins and yields its carrier before parking, starving the threads that would hand connections back. A
+ * semaphore parks waiters outright. Callers still time out after the pool's connection timeout. The limit follows
+ * the pool when {@link AdaptivePoolSizer} resizes it.
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final ResizableSemaphore permits;
+    private final long timeoutNanos;
+    private int maxConnections;
+
+    public ConnectionLimitingDataSource(DataSource pool, int maxConnections, Duration timeout) {
+        super(pool);
+        this.permits = new ResizableSemaphore(maxConnections);
+        this.timeoutNanos = timeout.toNanos();
+        this.maxConnections = maxConnections;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return releaseOnClose(obtain(super::getConnection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return releaseOnClose(obtain(() -> super.getConnection(username, password)));
+    }
+
+    int waiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Changes the limit. Lowering it does not take connections back: permits held beyond the new limit are
+     * retired as they are released.
+     */
+    synchronized void resize(int maxConnections) {
+        int delta = maxConnections - this.maxConnections;
+        if (delta > 0) {
+            permits.release(delta);
+        } else if (delta < 0) {
+            permits.reducePermits(-delta);
+        }
+        this.maxConnections = maxConnections;
+    }
+
+    private void acquire() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("Connection is not available, request timed out after "
+                        + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms (waiting=" + waiting() + ")");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", ex);
+        }
+    }
+
+    private Connection obtain(ConnectionSupplier supplier) throws SQLException {
+        try {
+            return supplier.get();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private Connection releaseOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    } finally {
+                        if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
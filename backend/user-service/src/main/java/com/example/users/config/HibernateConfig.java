@@ -2,28 +2,48 @@ package com.example.users.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /**
  * Hibernate configuration with optimized connection pooling and batch processing.
+ * <p>
+ * Registers {@link DataSourceProperties} itself: Boot's DataSource auto-configuration backs off as soon as an
+ * R2DBC connection factory exists, which the reactive read stack adds.
  */
 @Configuration
 @EnableTransactionManagement
+@EnableConfigurationProperties(DataSourceProperties.class)
 public class HibernateConfig {
 
+    /**
+     * Pool sizes and timeouts come from {@code spring.datasource.hikari} only, bound after this method returns.
+     */
     @Bean
     @Primary
     @ConfigurationProperties("spring.datasource.hikari")
@@ -32,45 +52,86 @@ public class HibernateConfig {
         config.setJdbcUrl(dataSourceProperties.getUrl());
         config.setUsername(dataSourceProperties.getUsername());
         config.setPassword(dataSourceProperties.getPassword());
-        config.setDriverClassName(dataSourceProperties.getDriverClassName());
-        
-        // Connection pool settings
-        config.setMaximumPoolSize(20);
-        config.setMinimumIdle(10);
-        config.setConnectionTimeout(30000);
-        config.setIdleTimeout(600000);
-        config.setMaxLifetime(1800000);
-        config.setLeakDetectionThreshold(60000);
+        config.setDriverClassName(dataSourceProperties.determineDriverClassName());
         config.setPoolName("UserServiceHikariPool");
-        
         return config;
     }
 
+    /**
+     * The Hikari pool. With a read replica configured, read-only transactions take their connections from
+     * {@link ReadReplicaDataSource} instead; connections are fetched lazily, on first use, because the
+     * transaction is only marked read-only after it has asked for one. With metrics available, the pool also
+     * records connections held on purpose, see {@link LongHeldConnections}.
+     */
     @Bean
     @Primary
-    public DataSource dataSource(HikariConfig hikariConfig) {
-        return new HikariDataSource(hikariConfig);
+    public DataSource dataSource(HikariConfig hikariConfig, Environment environment,
+                                 ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(meters ->
+                hikariConfig.setMetricsTrackerFactory(LongHeldConnections.metricsTrackerFactory(meters)));
+        DataSource primary = pool(hikariConfig, environment);
+        ReplicaLagMonitor monitor = replicaLagMonitor.getIfAvailable();
+        if (monitor == null) {
+            return primary;
+        }
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new ReadReplicaDataSource(monitor, primary));
+        return routing;
+    }
+
+    /**
+     * A Hikari pool, behind a {@link ConnectionLimitingDataSource} when requests run on virtual threads.
+     */
+    static DataSource pool(HikariConfig hikariConfig, Environment environment) {
+        HikariDataSource pool = new HikariDataSource(hikariConfig);
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return pool;
+        }
+        return new ConnectionLimitingDataSource(pool, hikariConfig.getMaximumPoolSize(),
+                Duration.ofMillis(hikariConfig.getConnectionTimeout()));
     }
 
+    /**
+     * With metrics available, every session records its JDBC work through {@link JdbcSessionMetrics}, and with
+     * observations available, traces it through {@link JdbcSessionObservations}.
+     */
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource, JpaProperties jpaProperties,
+                                                                       ObjectProvider<MeterRegistry> meterRegistry,
+                                                                       ObjectProvider<ObservationRegistry> observationRegistry) {
         LocalContainerEntityManagerFactoryBean em = new LocalContainerEntityManagerFactoryBean();
         em.setDataSource(dataSource);
         em.setPackagesToScan("com.example.users.domain");
+        Consumer<EntityManager> initializer = entityManager -> { };
+        MeterRegistry meters = meterRegistry.getIfAvailable();
+        if (meters != null) {
+            initializer = initializer.andThen(new JdbcSessionMetrics(meters));
+        }
+        ObservationRegistry observations = observationRegistry.getIfAvailable();
+        if (observations != null && !observations.isNoop()) {
+            initializer = initializer.andThen(new JdbcSessionObservations(observations));
+        }
+        em.setEntityManagerInitializer(initializer);
         
         HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter();
         em.setJpaVendorAdapter(vendorAdapter);
         
         Properties properties = new Properties();
         properties.setProperty("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
-        properties.setProperty("hibernate.hbm2ddl.auto", "update");
+        // the schema is owned by the Flyway migrations in db/migration
+        properties.setProperty("hibernate.hbm2ddl.auto", "none");
         properties.setProperty("hibernate.format_sql", "true");
-        properties.setProperty("hibernate.jdbc.batch_size", "20");
+        properties.setProperty("hibernate.jdbc.batch_size", "50");
         properties.setProperty("hibernate.order_inserts", "true");
         properties.setProperty("hibernate.order_updates", "true");
         properties.setProperty("hibernate.jdbc.batch_versioned_data", "true");
         properties.setProperty("hibernate.generate_statistics", "false");
         properties.setProperty("hibernate.use_sql_comments", "true");
+        // as Spring Boot sets it: lets Spring mark the connection of a read-only transaction read-only
+        properties.setProperty("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_HOLD");
+        // spring.jpa.properties.* (e.g. the H2 dialect in tests) override the defaults above
+        properties.putAll(jpaProperties.getProperties());
         
         em.setJpaProperties(properties);
         return em;
@@ -82,5 +143,19 @@ public class HibernateConfig {
         transactionManager.setEntityManagerFactory(entityManagerFactory);
         return transactionManager;
     }
-}
 
+    /**
+     * Resizes the primary pool at runtime; its bounds then take over from {@code spring.datasource.hikari}'s size.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "users.datasource.adaptive-pool.enabled", havingValue = "true")
+    @EnableConfigurationProperties(AdaptivePoolProperties.class)
+    static class AdaptivePoolConfig {
+
+        @Bean
+        public AdaptivePoolSizer adaptivePoolSizer(DataSource dataSource, MeterRegistry meterRegistry,
+                                                   AdaptivePoolProperties properties) throws SQLException {
+            return new AdaptivePoolSizer(dataSource, meterRegistry, properties);
+        }
+    }
+}
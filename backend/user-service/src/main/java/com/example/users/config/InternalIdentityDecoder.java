@@ -0,0 +1,44 @@
+package com.example.users.config;
+
+import java.time.Clock;
+import java.util.Map;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import com.example.common.security.InternalIdentityCodec;
+import com.example.common.security.InternalIdentityCodec.InternalIdentity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Verifies the gateway's {@code X-Internal-Identity} header with {@link InternalIdentityCodec} and exposes it as a
+ * {@link Jwt} carrying {@code sub}, {@code exp} and {@code realm_access.roles}, so the regular JWT authentication
+ * converter and {@code @AuthenticationPrincipal Jwt} keep working.
+ */
+public class InternalIdentityDecoder implements JwtDecoder {
+
+    public static final String HEADER = InternalIdentityCodec.HEADER;
+
+    private final InternalIdentityCodec codec;
+
+    public InternalIdentityDecoder(String secret, ObjectMapper objectMapper) {
+        this(secret, objectMapper, Clock.systemUTC());
+    }
+
+    InternalIdentityDecoder(String secret, ObjectMapper objectMapper, Clock clock) {
+        this.codec = new InternalIdentityCodec(secret, objectMapper, clock);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        InternalIdentity identity = codec.decode(token);
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .header("typ", HEADER)
+                .subject(identity.subject())
+                .expiresAt(identity.expiresAt())
+                .claim("realm_access", Map.of("roles", identity.roles()))
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.users.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.StringUtils;
+
+/**
+ * Secret shared with the api-gateway for its HMAC-signed {@code X-Internal-Identity} header. When set, requests
+ * carrying that header are authenticated from it without JWT validation; other requests still need a bearer token.
+ */
+@ConfigurationProperties("users.security.internal-identity")
+public record InternalIdentityProperties(String secret) {
+
+    public boolean enabled() {
+        return StringUtils.hasText(secret);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.users.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Records the JDBC work of every Hibernate session, so of every transaction: {@value #STATEMENTS}, how many statements
+ * it executed (a batch counts once), and {@value #EXECUTION}, how long they took together. Unlike
+ * {@code hibernate.generate_statistics} this keeps no session factory wide statistics, and shows what a single
+ * request costs rather than a total.
+ */
+public class JdbcSessionMetrics implements Consumer<EntityManager> {
+
+    static final String STATEMENTS = "users.jdbc.statements";
+    static final String EXECUTION = "users.jdbc.execution";
+
+    private final DistributionSummary statements;
+    private final Timer execution;
+
+    public JdbcSessionMetrics(MeterRegistry registry) {
+        this.statements = DistributionSummary.builder(STATEMENTS)
+                .description("JDBC statements executed per Hibernate session")
+                .baseUnit("statements")
+                .register(registry);
+        this.execution = Timer.builder(EXECUTION)
+                .description("Time spent executing JDBC statements per Hibernate session")
+                .register(registry);
+    }
+
+    @Override
+    public void accept(EntityManager entityManager) {
+        entityManager.unwrap(Session.class).addEventListeners(new Listener(statements, execution));
+    }
+
+    /**
+     * Confined to its session, like the session itself.
+     */
+    private static final class Listener implements SessionEventListener {
+
+        private final transient DistributionSummary statements;
+        private final transient Timer execution;
+        private int executed;
+        private long executionNanos;
+        private long startNanos;
+
+        Listener(DistributionSummary statements, Timer execution) {
+            this.statements = statements;
+            this.execution = execution;
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            executed++;
+            executionNanos += System.nanoTime() - startNanos;
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            executed++;
+            executionNanos += System.nanoTime() - startNanos;
+        }
+
+        @Override
+        public void end() {
+            statements.record(executed);
+            execution.record(executionNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.users.config;
+
+import java.util.function.Consumer;
+
+import org.hibernate.Session;
+import org.hibernate.SessionEventListener;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Observes the JDBC work of every Hibernate session as it happens: {@value #CONNECTION}, the wait for a pooled
+ * connection, and {@value #STATEMENT} for each statement or batch executed, tagged with its {@code kind}. Traced,
+ * they become spans of the service method or request that ran the session, telling pool waits from SQL time.
+ */
+public class JdbcSessionObservations implements Consumer<EntityManager> {
+
+    static final String CONNECTION = "users.jdbc.connection";
+    static final String STATEMENT = "users.jdbc.statement";
+
+    private final ObservationRegistry registry;
+
+    public JdbcSessionObservations(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void accept(EntityManager entityManager) {
+        entityManager.unwrap(Session.class).addEventListeners(new Listener(registry));
+    }
+
+    /**
+     * Confined to its session, like the session itself.
+     */
+    private static final class Listener implements SessionEventListener {
+
+        private final transient ObservationRegistry registry;
+        private transient Observation connection;
+        private transient Observation statement;
+
+        Listener(ObservationRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionStart() {
+            connection = Observation.createNotStarted(CONNECTION, registry)
+                    .contextualName("jdbc connection")
+                    .start();
+        }
+
+        @Override
+        public void jdbcConnectionAcquisitionEnd() {
+            connection = stop(connection);
+        }
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            statement = start("statement");
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            statement = stop(statement);
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            statement = start("batch");
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            statement = stop(statement);
+        }
+
+        private Observation start(String kind) {
+            return Observation.createNotStarted(STATEMENT, registry)
+                    .contextualName("jdbc " + kind)
+                    .lowCardinalityKeyValue("kind", kind)
+                    .start();
+        }
+
+        private static Observation stop(Observation observation) {
+            if (observation != null) {
+                observation.stop();
+            }
+            return null;
+        }
+    }
+}
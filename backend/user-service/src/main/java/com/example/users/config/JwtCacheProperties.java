@@ -0,0 +1,15 @@
+package com.example.users.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Opt-in cache of validated access tokens, see {@link CachingJwtDecoder}. Entries never outlive the token's
+ * own {@code exp}.
+ */
+@ConfigurationProperties("users.security.jwt-cache")
+public record JwtCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("10000") long maximumSize
+) {
+}
@@ -1,37 +1,23 @@
 package com.example.users.config;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import com.example.common.security.KeycloakRealmRoles;
+
 /**
- * Converts Keycloak realm roles to Spring Security authorities (ROLE_*).
+ * Converts Keycloak realm roles to Spring Security authorities (ROLE_*) through {@link KeycloakRealmRoles}, which
+ * caches the immutable authority set per role list.
  */
 public class KeycloakRealmRoleConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
+    private final KeycloakRealmRoles realmRoles = new KeycloakRealmRoles();
+
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
-        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
-        if (realmAccess == null || realmAccess.isEmpty()) {
-            return Collections.emptyList();
-        }
-        Object roles = realmAccess.get("roles");
-        if (!(roles instanceof List<?> roleList)) {
-            return Collections.emptyList();
-        }
-        return roleList.stream()
-                .filter(String.class::isInstance)
-                .map(String.class::cast)
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                .collect(Collectors.toSet());
+        return realmRoles.realmRoles(jwt).authorities();
     }
 }
-
-
@@ -0,0 +1,88 @@
+package com.example.users.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connections a caller holds on purpose for as long as it needs, such as an NDJSON export's cursor. How long they
+ * are held says nothing about how fast the database is, so besides {@code hikaricp.connections.usage} their usage
+ * is also recorded as {@value #HELD_TIMER}, which {@link AdaptivePoolSizer} leaves out of its mean usage time.
+ * <p>
+ * Hikari records a connection's usage on the thread that closes it, when its transaction ends, so
+ * {@link #hold(Runnable)} must wrap the whole transaction, not only the work inside it.
+ */
+public final class LongHeldConnections {
+
+    static final String HELD_TIMER = "users.datasource.connections.held";
+
+    private static final ThreadLocal<Boolean> HOLDING = new ThreadLocal<>();
+
+    private LongHeldConnections() {
+    }
+
+    /**
+     * Runs {@code work} with every connection it closes counted as held on purpose.
+     */
+    public static void hold(Runnable work) {
+        if (Boolean.TRUE.equals(HOLDING.get())) {
+            work.run();
+            return;
+        }
+        HOLDING.set(true);
+        try {
+            work.run();
+        } finally {
+            HOLDING.remove();
+        }
+    }
+
+    /**
+     * Hikari's Micrometer metrics, plus {@value #HELD_TIMER} tagged with the pool's name.
+     */
+    static MetricsTrackerFactory metricsTrackerFactory(MeterRegistry meterRegistry) {
+        MicrometerMetricsTrackerFactory micrometer = new MicrometerMetricsTrackerFactory(meterRegistry);
+        return (poolName, poolStats) -> {
+            IMetricsTracker tracker = micrometer.create(poolName, poolStats);
+            Timer held = Timer.builder(HELD_TIMER)
+                    .description("Connection usage time of connections held on purpose, such as export cursors")
+                    .tag("pool", poolName)
+                    .register(meterRegistry);
+            return new IMetricsTracker() {
+
+                @Override
+                public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+                    tracker.recordConnectionCreatedMillis(connectionCreatedMillis);
+                }
+
+                @Override
+                public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                    tracker.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+                }
+
+                @Override
+                public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                    tracker.recordConnectionUsageMillis(elapsedBorrowedMillis);
+                    if (Boolean.TRUE.equals(HOLDING.get())) {
+                        held.record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+                    }
+                }
+
+                @Override
+                public void recordConnectionTimeout() {
+                    tracker.recordConnectionTimeout();
+                }
+
+                @Override
+                public void close() {
+                    tracker.close();
+                    meterRegistry.remove(held);
+                }
+            };
+        };
+    }
+}
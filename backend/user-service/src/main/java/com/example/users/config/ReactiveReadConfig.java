@@ -0,0 +1,60 @@
+package com.example.users.config;
+
+import com.example.users.cache.UserAccountCache;
+import com.example.users.repository.ReactiveUserAccountRepository;
+import com.example.users.service.ReactiveUserAccountService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC pool and read path behind {@code users.reactive-reads.enabled}. Built here rather than by Boot's R2DBC
+ * auto-configuration, which is excluded: it would create a pool even with the reactive stack off, and a second
+ * transaction manager next to the JPA one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.reactive-reads.enabled", havingValue = "true")
+@EnableConfigurationProperties({ReactiveReadProperties.class, R2dbcProperties.class})
+public class ReactiveReadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool readConnectionPool(R2dbcProperties properties) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("UserServiceR2dbcPool")
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime());
+        if (pool.getMaxAcquireTime() != null) {
+            configuration.maxAcquireTime(pool.getMaxAcquireTime());
+        }
+        return new ConnectionPool(configuration.build());
+    }
+
+    @Bean
+    public ReactiveUserAccountRepository reactiveUserAccountRepository(ConnectionPool readConnectionPool,
+                                                                       ReactiveReadProperties properties) {
+        return new ReactiveUserAccountRepository(DatabaseClient.create(readConnectionPool), properties.fetchSize());
+    }
+
+    @Bean
+    public ReactiveUserAccountService reactiveUserAccountService(ReactiveUserAccountRepository repository,
+                                                                 UserAccountCache cache) {
+        return new ReactiveUserAccountService(repository, cache);
+    }
+}
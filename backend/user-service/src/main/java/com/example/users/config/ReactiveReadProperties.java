@@ -0,0 +1,15 @@
+package com.example.users.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Serves {@code GET /users/me} and {@code GET /users} over R2DBC ({@code spring.r2dbc.*}) instead of JPA; writes
+ * always go through JPA. {@code fetchSize} is how many rows a streamed listing pulls from the database at a time.
+ */
+@ConfigurationProperties("users.reactive-reads")
+public record ReactiveReadProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("500") int fetchSize
+) {
+}
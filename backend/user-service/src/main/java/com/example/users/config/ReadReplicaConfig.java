@@ -0,0 +1,46 @@
+package com.example.users.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * A second Hikari pool on a PostgreSQL streaming replica, which {@link HibernateConfig} routes read-only
+ * transactions to. The pool is a bean of its own so it is closed, health-checked and measured like the primary's.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.datasource.read-replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReadReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("users.datasource.read-replica.hikari")
+    public HikariConfig readReplicaHikariConfig(ReadReplicaProperties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.url());
+        config.setUsername(properties.username());
+        config.setPassword(properties.password());
+        config.setReadOnly(true);
+        config.setPoolName("UserServiceReplicaHikariPool");
+        return config;
+    }
+
+    @Bean
+    public DataSource readReplicaPool(@Qualifier("readReplicaHikariConfig") HikariConfig readReplicaHikariConfig,
+                                      Environment environment) {
+        return HibernateConfig.pool(readReplicaHikariConfig, environment);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("readReplicaPool") DataSource readReplicaPool,
+                                               ReadReplicaProperties properties) {
+        return new ReplicaLagMonitor(readReplicaPool, properties);
+    }
+}
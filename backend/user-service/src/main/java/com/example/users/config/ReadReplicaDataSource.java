@@ -0,0 +1,61 @@
+package com.example.users.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * Source of read-only connections: the replica while {@link ReplicaLagMonitor} reports it within the maximum lag,
+ * otherwise the primary. Installed as the {@link LazyConnectionDataSourceProxy#setReadOnlyDataSource read-only
+ * data source} of the primary, so it is only asked for connections by read-only transactions.
+ * <p>
+ * Code that must see a write it knows was just committed, which the replica may not have replayed yet, wraps its
+ * read in {@link #readFromPrimary(Supplier)}.
+ */
+public class ReadReplicaDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor monitor;
+
+    public ReadReplicaDataSource(ReplicaLagMonitor monitor, DataSource primary) {
+        super(monitor.replica());
+        this.primary = primary;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Runs {@code read} with any connection it opens taken from the primary. Only the connection's first use
+     * counts: a transaction that already queried the replica stays on it.
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        if (Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            return read.get();
+        }
+        PRIMARY_REQUIRED.set(true);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return useReplica() ? super.getConnection() : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return useReplica() ? super.getConnection(username, password) : primary.getConnection(username, password);
+    }
+
+    private boolean useReplica() {
+        return PRIMARY_REQUIRED.get() == null && monitor.isWithinMaxLag();
+    }
+}
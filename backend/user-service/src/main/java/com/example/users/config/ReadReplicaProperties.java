@@ -0,0 +1,33 @@
+package com.example.users.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * PostgreSQL streaming replica that serves read-only transactions. The replica's pool is tuned under
+ * {@code users.datasource.read-replica.hikari}, like {@code spring.datasource.hikari} for the primary. Reads fall
+ * back to the primary while the replica is more than {@code maxLag} behind, checked every {@code lagCheckInterval},
+ * and while its WAL receiver has heard nothing from the primary for {@code receiverTimeout}. An idle primary only
+ * sends a keepalive every half {@code wal_sender_timeout}, so keep {@code receiverTimeout} above that.
+ */
+@ConfigurationProperties("users.datasource.read-replica")
+public record ReadReplicaProperties(
+        @DefaultValue("false") boolean enabled,
+        String url,
+        String username,
+        String password,
+        @DefaultValue("5s") Duration maxLag,
+        @DefaultValue("1s") Duration lagCheckInterval,
+        @DefaultValue("60s") Duration receiverTimeout
+) {
+
+    /**
+     * How long after a write its account is read from the primary: the replica may be up to {@code maxLag}
+     * behind, as of a check up to {@code lagCheckInterval} ago.
+     */
+    public Duration readYourWritesWindow() {
+        return maxLag.plus(lagCheckInterval);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.users.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how far the read replica is behind the primary and tells {@link ReadReplicaDataSource} whether it may
+ * serve reads.
+ * <p>
+ * The lag is the age of the last transaction the replica replayed, or zero once it has replayed all the WAL it
+ * received (an idle primary sends no new transactions to age against). Having replayed everything only means
+ * something while the WAL receiver is streaming, so the lag is unknown without a receiver that heard from the
+ * primary within {@link ReadReplicaProperties#receiverTimeout()}. The replica counts as behind until the first check
+ * succeeds, whenever a check fails, while the lag is unknown and while it exceeds
+ * {@link ReadReplicaProperties#maxLag()}.
+ * <p>
+ * {@code pg_stat_wal_receiver} hides its status from roles without {@code pg_read_all_stats}, so the replica user
+ * needs that role or the replica never serves reads.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements SmartLifecycle {
+
+    static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0
+                        WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming'
+                                         AND last_msg_receipt_time > now() - make_interval(secs => ?)) THEN NULL
+                        WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END""";
+
+    private final DataSource replica;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadReplicaProperties properties;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean withinMaxLag;
+    private volatile boolean running;
+
+    public ReplicaLagMonitor(DataSource replica, ReadReplicaProperties properties) {
+        this(replica, new JdbcTemplate(replica), properties);
+    }
+
+    ReplicaLagMonitor(DataSource replica, JdbcTemplate jdbcTemplate, ReadReplicaProperties properties) {
+        this.replica = replica;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public DataSource replica() {
+        return replica;
+    }
+
+    public boolean isWithinMaxLag() {
+        return withinMaxLag;
+    }
+
+    void check() {
+        boolean usable;
+        try {
+            Double lagSeconds = jdbcTemplate.queryForObject(LAG_QUERY, Double.class,
+                    properties.receiverTimeout().toMillis() / 1000.0);
+            usable = lagSeconds != null && lagSeconds * 1000 <= properties.maxLag().toMillis();
+            if (!usable && withinMaxLag) {
+                log.warn("Read replica is {}s behind, reading from the primary until it catches up", lagSeconds);
+            }
+        } catch (RuntimeException ex) {
+            usable = false;
+            if (withinMaxLag) {
+                log.warn("Read replica lag check failed, reading from the primary", ex);
+            }
+        }
+        if (usable && !withinMaxLag) {
+            log.info("Read replica is within {} of the primary, serving reads from it", properties.maxLag());
+        }
+        withinMaxLag = usable;
+    }
+
+    @Override
+    public synchronized void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+        executor.scheduleWithFixedDelay(this::check, 0, properties.lagCheckInterval().toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        withinMaxLag = false;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -1,40 +1,174 @@
 package com.example.users.config;
 
+import com.example.common.security.JwksKeyStore;
+import com.example.common.security.JwksProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.oauth2.resource.OAuth2ResourceServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.oauth2.server.resource.OAuth2ResourceServerConfigurer;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationProvider;
+import org.springframework.security.oauth2.server.resource.web.BearerTokenResolver;
+import org.springframework.security.oauth2.server.resource.web.DefaultBearerTokenResolver;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Configuration
 @EnableMethodSecurity
+@EnableConfigurationProperties({JwtCacheProperties.class, InternalIdentityProperties.class})
 public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
-                                                   JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
+                                                   JwtAuthenticationConverter jwtAuthenticationConverter,
+                                                   InternalIdentityProperties internalIdentityProperties,
+                                                   ObjectProvider<JwtDecoder> jwtDecoder,
+                                                   ObjectMapper objectMapper,
+                                                   ObjectProvider<MeterRegistry> meterRegistry) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
                         .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/users/me").hasAnyRole("USER", "ADMIN")
-                        .requestMatchers("/users/**").hasRole("ADMIN")
+                        .requestMatchers("/users/**", "/users:batch").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
-                .oauth2ResourceServer(oauth -> oauth
-                        .jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter))
-                );
+                .oauth2ResourceServer(oauth -> {
+                    JwtDecoder bearerDecoder = timed(jwtDecoder.getObject(), "bearer", meterRegistry);
+                    if (internalIdentityProperties.enabled()) {
+                        JwtDecoder identityDecoder = timed(
+                                new InternalIdentityDecoder(internalIdentityProperties.secret(), objectMapper),
+                                "internal-identity", meterRegistry);
+                        internalIdentity(oauth, identityDecoder, bearerDecoder, jwtAuthenticationConverter);
+                    } else {
+                        oauth.jwt(jwt -> jwt
+                                .decoder(bearerDecoder)
+                                .jwtAuthenticationConverter(jwtAuthenticationConverter));
+                    }
+                });
         return http.build();
     }
 
+    /**
+     * Requests carrying the gateway's {@link InternalIdentityDecoder#HEADER} are authenticated from it alone, skipping
+     * the RSA verification and the JWKS lookup; everything else falls back to the bearer token.
+     */
+    private static void internalIdentity(OAuth2ResourceServerConfigurer<HttpSecurity> oauth,
+                                         JwtDecoder identityDecoder,
+                                         JwtDecoder jwtDecoder,
+                                         JwtAuthenticationConverter jwtAuthenticationConverter) {
+        AuthenticationManager identityManager = jwtAuthenticationManager(identityDecoder, jwtAuthenticationConverter);
+        AuthenticationManager jwtManager = jwtAuthenticationManager(jwtDecoder, jwtAuthenticationConverter);
+        BearerTokenResolver bearerTokenResolver = new DefaultBearerTokenResolver();
+        oauth
+                .bearerTokenResolver(request -> {
+                    String identity = request.getHeader(InternalIdentityDecoder.HEADER);
+                    return identity != null ? identity : bearerTokenResolver.resolve(request);
+                })
+                .authenticationManagerResolver(request ->
+                        request.getHeader(InternalIdentityDecoder.HEADER) != null ? identityManager : jwtManager);
+    }
+
+    private static JwtDecoder timed(JwtDecoder decoder, String name, ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry != null ? new TimedJwtDecoder(decoder, name, registry) : decoder;
+    }
+
+    private static AuthenticationManager jwtAuthenticationManager(JwtDecoder decoder,
+                                                                  JwtAuthenticationConverter jwtAuthenticationConverter) {
+        JwtAuthenticationProvider provider = new JwtAuthenticationProvider(decoder);
+        provider.setJwtAuthenticationConverter(jwtAuthenticationConverter);
+        return new ProviderManager(provider);
+    }
+
+    /**
+     * Realm roles become authorities through {@link KeycloakRealmRoleConverter}, timed as {@code users.security.roles}
+     * when metrics are available.
+     */
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public JwtAuthenticationConverter jwtAuthenticationConverter(ObjectProvider<MeterRegistry> meterRegistry) {
+        KeycloakRealmRoleConverter roleConverter = new KeycloakRealmRoleConverter();
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new KeycloakRealmRoleConverter());
+        converter.setJwtGrantedAuthoritiesConverter(roleConverter);
+        meterRegistry.ifAvailable(registry -> {
+            Timer timer = Timer.builder("users.security.roles")
+                    .description("Time to convert realm roles to authorities")
+                    .register(registry);
+            converter.setJwtGrantedAuthoritiesConverter(jwt -> timer.record(() -> roleConverter.convert(jwt)));
+        });
         return converter;
     }
-}
 
+    /**
+     * The key store's refresh policy, from {@code users.security.jwks}.
+     */
+    @Bean
+    public JwksProperties jwksProperties(Environment environment) {
+        return Binder.get(environment).bindOrCreate("users.security.jwks", JwksProperties.class);
+    }
 
+    @Bean
+    public JwksKeyStore jwksKeyStore(OAuth2ResourceServerProperties resourceServerProperties,
+                                     JwksProperties jwksProperties) throws MalformedURLException {
+        URL jwkSetUrl = URI.create(resourceServerProperties.getJwt().getJwkSetUri()).toURL();
+        return new JwksKeyStore(jwkSetUrl, jwksProperties);
+    }
+
+    /**
+     * Replaces the decoder Spring Boot would otherwise create, which resolves the JWKS lazily on the request path,
+     * with one verifying against the prefetched {@link JwksKeyStore}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "users.security.jwt-cache.enabled", havingValue = "false", matchIfMissing = true)
+    public JwtDecoder jwtDecoder(JwksKeyStore jwksKeyStore, OAuth2ResourceServerProperties resourceServerProperties) {
+        return jwksJwtDecoder(jwksKeyStore, resourceServerProperties.getJwt());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "users.security.jwt-cache.enabled", havingValue = "true")
+    public CachingJwtDecoder cachingJwtDecoder(JwksKeyStore jwksKeyStore,
+                                               OAuth2ResourceServerProperties resourceServerProperties,
+                                               JwtCacheProperties cacheProperties) {
+        JwtDecoder delegate = jwksJwtDecoder(jwksKeyStore, resourceServerProperties.getJwt());
+        return new CachingJwtDecoder(delegate, cacheProperties.maximumSize());
+    }
+
+    static JwtDecoder jwksJwtDecoder(JwksKeyStore jwksKeyStore, OAuth2ResourceServerProperties.Jwt jwt) {
+        Set<JWSAlgorithm> algorithms = jwt.getJwsAlgorithms().stream()
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(algorithms, jwksKeyStore));
+        // claims are checked by the validator below, as NimbusJwtDecoder does for its own processors
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(jwt.getIssuerUri()));
+        return decoder;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.users.config;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every decode of the wrapped {@link JwtDecoder} as {@value #TIMER}, tagged with the {@code decoder} it went
+ * through ({@code bearer} or {@code internal-identity}) and whether the token was {@code accepted}.
+ */
+public class TimedJwtDecoder implements JwtDecoder {
+
+    static final String TIMER = "users.security.jwt.decode";
+
+    private final JwtDecoder delegate;
+    private final MeterRegistry registry;
+    private final Timer accepted;
+    private final Timer rejected;
+
+    public TimedJwtDecoder(JwtDecoder delegate, String decoder, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.accepted = timer(decoder, "true", registry);
+        this.rejected = timer(decoder, "false", registry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            Jwt jwt = delegate.decode(token);
+            sample.stop(accepted);
+            return jwt;
+        } catch (JwtException ex) {
+            sample.stop(rejected);
+            throw ex;
+        }
+    }
+
+    private static Timer timer(String decoder, String accepted, MeterRegistry registry) {
+        return Timer.builder(TIMER)
+                .description("Time to decode and validate a token")
+                .tag("decoder", decoder)
+                .tag("accepted", accepted)
+                .register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.users.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanExporters;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.example.common.tracing.TailSamplingProperties;
+import com.example.common.tracing.TailSamplingSpanExporter;
+
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Which traces to keep, from {@code users.tracing.tail-sampling}.
+     */
+    @Bean
+    public TailSamplingProperties tailSamplingProperties(Environment environment) {
+        return Binder.get(environment).bindOrCreate("users.tracing.tail-sampling", TailSamplingProperties.class);
+    }
+
+    /**
+     * Replaces the span exporters Spring Boot would otherwise export to directly, such as OTLP's, with a
+     * {@link TailSamplingSpanExporter} in front of them.
+     */
+    @Bean
+    public SpanExporters tailSamplingSpanExporters(ObjectProvider<SpanExporter> spanExporters,
+                                                   TailSamplingProperties properties) {
+        List<SpanExporter> exporters = spanExporters.orderedStream().toList();
+        if (exporters.isEmpty()) {
+            return SpanExporters.of(exporters);
+        }
+        return SpanExporters.of(new TailSamplingSpanExporter(SpanExporter.composite(exporters), properties));
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.users.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Bounds for the in-process subject to account cache behind {@code GET /users/me}. With {@code broadcast}
+ * enabled, writes on any replica evict the entry on every replica via PostgreSQL LISTEN/NOTIFY.
+ */
+@ConfigurationProperties("users.cache")
+public record UserCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("5m") Duration timeToLive,
+        @DefaultValue("false") boolean broadcast
+) {
+}
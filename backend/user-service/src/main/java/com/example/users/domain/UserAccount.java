@@ -8,7 +8,9 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
@@ -16,6 +18,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.Instant;
 import java.util.HashSet;
@@ -31,7 +35,8 @@ import java.util.Set;
 public class UserAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_accounts_seq")
+    @SequenceGenerator(name = "user_accounts_seq", sequenceName = "user_accounts_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -48,6 +53,7 @@ public class UserAccount {
     private String email;
 
     @ElementCollection
+    @BatchSize(size = 500)
     @CollectionTable(name = "user_account_roles", joinColumns = @JoinColumn(name = "user_account_id"))
     @Column(name = "role")
     @Builder.Default
@@ -55,6 +61,16 @@ public class UserAccount {
 
     @Builder.Default
     private Instant createdAt = Instant.now();
+
+    /**
+     * Optimistic lock, incremented by Hibernate on every write to the account or its roles; the account's ETag is
+     * derived from it. The native upsert increments it itself.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    @Builder.Default
+    private long version = 0L;
 }
 
 
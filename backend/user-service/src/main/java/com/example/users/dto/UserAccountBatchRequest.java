@@ -0,0 +1,11 @@
+package com.example.users.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record UserAccountBatchRequest(
+        @NotEmpty @Size(max = 1000) List<@Valid UserAccountRequest> requests
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.users.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of accounts; {@code nextCursor} is {@code null} on the last page.
+ */
+public record UserAccountPage(
+        List<UserAccountResponse> items,
+        String nextCursor
+) {
+}
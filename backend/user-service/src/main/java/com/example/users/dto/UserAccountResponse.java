@@ -9,7 +9,8 @@ public record UserAccountResponse(
         String username,
         String email,
         Set<String> roles,
-        Instant createdAt
+        Instant createdAt,
+        long version
 ) {
 }
 
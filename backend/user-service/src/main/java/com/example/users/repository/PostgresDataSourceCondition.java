@@ -0,0 +1,21 @@
+package com.example.users.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
+import org.springframework.boot.autoconfigure.condition.SpringBootCondition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Matches when {@code spring.datasource.url} is a PostgreSQL JDBC url. Decided from configuration alone, so
+ * without a connection at startup.
+ */
+class PostgresDataSourceCondition extends SpringBootCondition {
+
+    @Override
+    public ConditionOutcome getMatchOutcome(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        String url = context.getEnvironment().getProperty("spring.datasource.url", "");
+        return url.startsWith("jdbc:postgresql:")
+                ? ConditionOutcome.match("spring.datasource.url is a PostgreSQL url")
+                : ConditionOutcome.noMatch("spring.datasource.url is not a PostgreSQL url");
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.users.repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.context.annotation.Conditional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+/**
+ * PostgreSQL implementation of {@link UserAccountUpsertRepository}: one statement for the account row and one
+ * set-based statement for its roles. Only created when {@code spring.datasource.url} points at PostgreSQL, so other
+ * databases keep the JPA read-modify-write.
+ * <p>
+ * An existing account is updated in place first, and its row lock serializes upserts of the same subject. Only when
+ * there is none yet is a new row inserted under a transaction-scoped advisory lock on the subject, so only inserts
+ * draw an id from {@code user_accounts_seq}. {@code ON CONFLICT (subject)} alone is not enough for them, because two
+ * in-flight inserts of a new account would still collide on the unique email index. The roles are reconciled in a
+ * second statement on purpose: its fresh snapshot sees role rows committed by the upsert that went before, instead
+ * of duplicating them.
+ * <p>
+ * Each native insert takes one whole sequence value, which never falls inside a block handed out by Hibernate's
+ * pooled optimizer.
+ */
+@Repository
+@Conditional(PostgresDataSourceCondition.class)
+public class PostgresUserAccountUpsertRepository implements UserAccountUpsertRepository {
+
+    private static final String UPDATE_ACCOUNT_SQL = """
+            UPDATE user_accounts
+            SET username = ?, email = ?, version = version + 1
+            WHERE subject = ?
+            RETURNING id, createdAt, version
+            """;
+
+    // the conflict branch only runs when another writer inserted the subject since the update above
+    private static final String INSERT_ACCOUNT_SQL = """
+            INSERT INTO user_accounts (id, subject, username, email, createdAt, version)
+            SELECT nextval('user_accounts_seq'), ?, ?, ?, ?, 0
+            FROM (SELECT pg_advisory_xact_lock(hashtext(?))) AS subject_lock
+            ON CONFLICT (subject) DO UPDATE
+            SET username = EXCLUDED.username, email = EXCLUDED.email, version = user_accounts.version + 1
+            RETURNING id, createdAt, version
+            """;
+
+    private static final String RECONCILE_ROLES_SQL = """
+            WITH stale_roles AS (
+                DELETE FROM user_account_roles WHERE user_account_id = ? AND role <> ALL (?::text[])
+            )
+            INSERT INTO user_account_roles (user_account_id, role)
+            SELECT ?, d.role FROM unnest(?::text[]) AS d(role)
+            WHERE NOT EXISTS (
+                SELECT 1 FROM user_account_roles r WHERE r.user_account_id = ? AND r.role = d.role)
+            """;
+
+    private static final RowMapper<UpsertedAccount> UPSERTED_ACCOUNT = (rs, rowNum) -> new UpsertedAccount(
+            rs.getLong(1), rs.getObject(2, OffsetDateTime.class).toInstant(), rs.getLong(3));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresUserAccountUpsertRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public UpsertedAccount upsertNative(String subject, String username, String email, Collection<String> roles) {
+        List<UpsertedAccount> updated = jdbcTemplate.query(UPDATE_ACCOUNT_SQL, UPSERTED_ACCOUNT, username, email, subject);
+        UpsertedAccount account = !updated.isEmpty()
+                ? updated.get(0)
+                : jdbcTemplate.queryForObject(INSERT_ACCOUNT_SQL, UPSERTED_ACCOUNT,
+                        subject, username, email, OffsetDateTime.now(ZoneOffset.UTC), subject);
+        String[] roleArray = roles.toArray(String[]::new);
+        jdbcTemplate.update(RECONCILE_ROLES_SQL, account.id(), roleArray, account.id(), roleArray, account.id());
+        return account;
+    }
+}
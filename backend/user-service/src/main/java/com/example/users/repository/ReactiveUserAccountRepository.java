@@ -0,0 +1,101 @@
+package com.example.users.repository;
+
+import com.example.users.dto.UserAccountResponse;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking reads of {@code user_accounts} and {@code user_account_roles} over R2DBC. Each query returns one
+ * row per role from a left join in account id order, and consecutive rows of an account are folded back into a
+ * single {@link UserAccountResponse}.
+ */
+public class ReactiveUserAccountRepository {
+
+    private static final String ACCOUNT_COLUMNS = "a.id, a.subject, a.username, a.email, a.createdAt, a.version, r.role";
+    private static final String ROLES_JOIN = " LEFT JOIN user_account_roles r ON r.user_account_id = a.id";
+
+    private static final String FIND_BY_SUBJECT_SQL = "SELECT " + ACCOUNT_COLUMNS
+            + " FROM user_accounts a" + ROLES_JOIN
+            + " WHERE a.subject = :subject";
+
+    // the limit applies to accounts, so roles are joined onto the page rather than counted in it
+    private static final String FIND_PAGE_SQL = "SELECT " + ACCOUNT_COLUMNS
+            + " FROM (SELECT * FROM user_accounts WHERE id > :afterId ORDER BY id LIMIT :limit) a" + ROLES_JOIN
+            + " ORDER BY a.id";
+
+    private static final String STREAM_ALL_SQL = "SELECT " + ACCOUNT_COLUMNS
+            + " FROM user_accounts a" + ROLES_JOIN
+            + " ORDER BY a.id";
+
+    private final DatabaseClient client;
+    private final int fetchSize;
+
+    public ReactiveUserAccountRepository(DatabaseClient client, int fetchSize) {
+        this.client = client;
+        this.fetchSize = fetchSize;
+    }
+
+    public Mono<UserAccountResponse> findBySubject(String subject) {
+        return accounts(client.sql(FIND_BY_SUBJECT_SQL)
+                .bind("subject", subject))
+                .next();
+    }
+
+    /**
+     * Keyset page: up to {@code limit} accounts with an id strictly greater than {@code afterId}, in id order.
+     */
+    public Flux<UserAccountResponse> findPage(long afterId, int limit) {
+        return accounts(client.sql(FIND_PAGE_SQL)
+                .bind("afterId", afterId)
+                .bind("limit", limit));
+    }
+
+    /**
+     * Every account in id order. Rows are fetched {@code fetchSize} at a time as downstream demand arrives, so a
+     * slow consumer holds one connection and at most a fetch's worth of rows, never the whole table.
+     */
+    public Flux<UserAccountResponse> streamAll() {
+        return accounts(client.sql(STREAM_ALL_SQL)
+                .filter((statement, next) -> next.execute(statement.fetchSize(fetchSize))));
+    }
+
+    private static Flux<UserAccountResponse> accounts(DatabaseClient.GenericExecuteSpec query) {
+        return query.map(AccountRow::read)
+                .all()
+                .bufferUntilChanged(AccountRow::id)
+                .map(ReactiveUserAccountRepository::toResponse);
+    }
+
+    private static UserAccountResponse toResponse(List<AccountRow> rows) {
+        AccountRow account = rows.get(0);
+        Set<String> roles = rows.stream()
+                .map(AccountRow::role)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+        return new UserAccountResponse(account.id(), account.subject(), account.username(), account.email(),
+                roles, account.createdAt().toInstant(), account.version());
+    }
+
+    private record AccountRow(Long id, String subject, String username, String email, OffsetDateTime createdAt,
+                              long version, String role) {
+
+        static AccountRow read(Readable row) {
+            return new AccountRow(
+                    row.get("id", Long.class),
+                    row.get("subject", String.class),
+                    row.get("username", String.class),
+                    row.get("email", String.class),
+                    row.get("createdAt", OffsetDateTime.class),
+                    Objects.requireNonNull(row.get("version", Long.class)),
+                    row.get("role", String.class));
+        }
+    }
+}
@@ -1,13 +1,47 @@
 package com.example.users.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.users.domain.UserAccount;
 
+import jakarta.persistence.QueryHint;
+
 public interface UserAccountRepository extends JpaRepository<UserAccount, Long> {
+
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Read-only, unlike other derived queries, so that on its own it can be served by a read replica.
+     */
+    @EntityGraph(attributePaths = "roles")
+    @Transactional(readOnly = true)
     Optional<UserAccount> findBySubject(String subject);
-}
 
+    @EntityGraph(attributePaths = "roles")
+    List<UserAccount> findAllBySubjectIn(Collection<String> subjects);
+
+    /**
+     * Keyset page: accounts with an id strictly greater than {@code id}, in id order. Roles are not
+     * fetch-joined here because that would force in-memory pagination; they are batch loaded instead.
+     */
+    List<UserAccount> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
+    /**
+     * Server-side cursor over all accounts. Must be consumed inside a transaction and closed.
+     */
+    @EntityGraph(attributePaths = "roles")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE))
+    @Query("select u from UserAccount u order by u.id")
+    Stream<UserAccount> streamAllOrderedById();
+}
@@ -0,0 +1,21 @@
+package com.example.users.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Single-statement upsert of an account and its roles, bypassing the persistence context. Only available on
+ * PostgreSQL, see {@link PostgresUserAccountUpsertRepository}.
+ */
+public interface UserAccountUpsertRepository {
+
+    /**
+     * Inserts the account or updates it in place when {@code subject} already exists, then reconciles its
+     * role rows against {@code roles}. Concurrent calls for the same new subject all succeed against one row.
+     * The account's version starts at 0 and is incremented on every update.
+     */
+    UpsertedAccount upsertNative(String subject, String username, String email, Collection<String> roles);
+
+    record UpsertedAccount(Long id, Instant createdAt, long version) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.users.service;
+
+import com.example.users.cache.UserAccountCache;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.repository.ReactiveUserAccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The read half of {@link UserAccountService} over R2DBC, for {@code users.reactive-reads.enabled}. It shares the
+ * account cache and its invalidation with the JPA write path, so reads after a write see the same results on
+ * either stack.
+ */
+@RequiredArgsConstructor
+public class ReactiveUserAccountService {
+
+    private final ReactiveUserAccountRepository repository;
+    private final UserAccountCache cache;
+
+    /**
+     * Served from {@link UserAccountCache}; a miss is a single query, run without holding any thread.
+     */
+    public Mono<UserAccountResponse> getBySubject(String subject) {
+        return cache.getAsync(subject, key -> repository.findBySubject(key)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Subject not registered: " + key))));
+    }
+
+    /**
+     * Same contract as {@link UserAccountService#findPage(long, int)}.
+     */
+    public Mono<Slice<UserAccountResponse>> findPage(long afterId, int size) {
+        int pageSize = Math.clamp(size, 1, UserAccountService.MAX_PAGE_SIZE);
+        return repository.findPage(afterId, pageSize + 1)
+                .collectList()
+                .map(accounts -> {
+                    boolean hasNext = accounts.size() > pageSize;
+                    return new SliceImpl<>(hasNext ? accounts.subList(0, pageSize) : accounts,
+                            Pageable.ofSize(pageSize), hasNext);
+                });
+    }
+
+    /**
+     * Every account in id order, read from the database only as fast as the subscriber requests them.
+     */
+    public Flux<UserAccountResponse> streamAll() {
+        return repository.streamAll();
+    }
+
+    /**
+     * Same as {@link UserAccountService#listingVersion()}: {@code null} while unknown.
+     */
+    public String listingVersion() {
+        return cache.listingVersion();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.users.service;
+
+import java.util.List;
+
+/**
+ * Published inside the writing transaction once per write, naming every subject whose account it created, updated
+ * or deleted.
+ */
+public record UserAccountChangedEvent(List<String> subjects) {
+
+    public UserAccountChangedEvent {
+        subjects = List.copyOf(subjects);
+    }
+
+    public UserAccountChangedEvent(String subject) {
+        this(List.of(subject));
+    }
+}
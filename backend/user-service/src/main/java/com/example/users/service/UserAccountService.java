@@ -1,69 +1,240 @@
 package com.example.users.service;
 
+import com.example.users.cache.UserAccountCache;
+import com.example.users.config.ReadReplicaDataSource;
 import com.example.users.domain.UserAccount;
 import com.example.users.dto.UserAccountRequest;
 import com.example.users.dto.UserAccountResponse;
 import com.example.users.repository.UserAccountRepository;
+import com.example.users.repository.UserAccountUpsertRepository;
+import com.example.users.repository.UserAccountUpsertRepository.UpsertedAccount;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+/**
+ * Every public method is timed as {@code users.service}, tagged with its {@code method}.
+ */
 @Service
 @RequiredArgsConstructor
+@Observed(name = "users.service")
 public class UserAccountService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    /**
+     * Attempts at a write before a version conflict is passed on to the caller.
+     */
+    public static final int MAX_WRITE_ATTEMPTS = 3;
+
     private final UserAccountRepository repository;
+    private final ObjectProvider<UserAccountUpsertRepository> nativeUpserts;
+    private final EntityManager entityManager;
+    private final UserAccountCache cache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactions;
 
+    /**
+     * Returns up to {@code size} accounts (capped at {@link #MAX_PAGE_SIZE}) whose id is greater than {@code afterId}.
+     */
     @Transactional(readOnly = true)
-    public List<UserAccountResponse> findAll() {
-        return repository.findAll()
-                .stream()
+    public Slice<UserAccountResponse> findPage(long afterId, int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<UserAccount> accounts = read(cache.changedRecently(),
+                () -> repository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1)));
+        boolean hasNext = accounts.size() > pageSize;
+        List<UserAccountResponse> items = accounts.stream()
+                .limit(pageSize)
                 .map(UserAccountService::toResponse)
                 .toList();
+        return new SliceImpl<>(items, Pageable.ofSize(pageSize), hasNext);
     }
 
+    /**
+     * Pushes every account to {@code sink} in id order without materializing the table. Each entity is
+     * detached once mapped so the persistence context stays flat for the lifetime of the cursor.
+     */
     @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserAccountResponse> sink) {
+        try (Stream<UserAccount> accounts = read(cache.changedRecently(), repository::streamAllOrderedById)) {
+            accounts.forEach(account -> {
+                UserAccountResponse response = toResponse(account);
+                entityManager.detach(account);
+                sink.accept(response);
+            });
+        }
+    }
+
+    /**
+     * Opaque version of the whole account table, or {@code null} while unknown, see
+     * {@link UserAccountCache#listingVersion()}.
+     */
+    public String listingVersion() {
+        return cache.listingVersion();
+    }
+
+    /**
+     * Served from {@link UserAccountCache}; a miss is a single query in the repository's own read-only transaction.
+     */
     public UserAccountResponse getBySubject(String subject) {
-        return repository.findBySubject(subject)
+        return cache.get(subject, key -> read(cache.changedRecently(key), () -> repository.findBySubject(key))
                 .map(UserAccountService::toResponse)
-                .orElseThrow(() -> new IllegalArgumentException("Subject not registered: " + subject));
+                .orElseThrow(() -> new IllegalArgumentException("Subject not registered: " + key)));
     }
 
-    @Transactional
+    /**
+     * On PostgreSQL this is an in-place update, or a locked {@code INSERT ... ON CONFLICT} for a new subject, plus
+     * one set-based statement for its role rows, so concurrent first logins for one subject cannot trip the unique
+     * constraint. Other databases fall back to a read-modify-write through the entity, retried on a version conflict.
+     */
     public UserAccountResponse upsert(UserAccountRequest request) {
+        return retryOnConflict(() -> {
+            UserAccountResponse response = nativeUpserts.getIfAvailable() != null
+                    ? upsertNative(request)
+                    : upsertEntity(request);
+            eventPublisher.publishEvent(new UserAccountChangedEvent(response.subject()));
+            return response;
+        });
+    }
+
+    UserAccountResponse upsertNative(UserAccountRequest request) {
+        UpsertedAccount upserted = nativeUpserts.getObject().upsertNative(
+                request.subject(), request.username(), request.email(), request.roles());
+        return new UserAccountResponse(
+                upserted.id(),
+                request.subject(),
+                request.username(),
+                request.email(),
+                Set.copyOf(request.roles()),
+                upserted.createdAt(),
+                upserted.version()
+        );
+    }
+
+    UserAccountResponse upsertEntity(UserAccountRequest request) {
         UserAccount account = repository.findBySubject(request.subject())
                 .map(existing -> {
                     existing.setUsername(request.username());
                     existing.setEmail(request.email());
-                    existing.setRoles(request.roles());
+                    existing.setRoles(new HashSet<>(request.roles()));
                     return existing;
                 })
                 .orElseGet(() -> UserAccount.builder()
                         .subject(request.subject())
                         .username(request.username())
                         .email(request.email())
-                        .roles(request.roles())
+                        .roles(new HashSet<>(request.roles()))
                         .build());
-        return toResponse(repository.save(account));
+        // flushed here so a stale version fails this attempt, and the response carries the new version
+        return toResponse(repository.saveAndFlush(account));
+    }
+
+    /**
+     * Upserts many accounts in one transaction. Existing subjects are resolved with a single IN query and the
+     * resulting inserts, updates and role rows are flushed as JDBC batches. Roles of existing accounts are
+     * reconciled in place so only the changed role rows are written. The last entry wins for a repeated subject.
+     * A version conflict on any account retries the whole batch.
+     */
+    public List<UserAccountResponse> upsertAll(List<UserAccountRequest> requests) {
+        return retryOnConflict(() -> upsertBatch(requests));
+    }
+
+    private List<UserAccountResponse> upsertBatch(List<UserAccountRequest> requests) {
+        Map<String, UserAccountRequest> bySubject = new LinkedHashMap<>();
+        requests.forEach(request -> bySubject.put(request.subject(), request));
+        Map<String, UserAccount> existing = repository.findAllBySubjectIn(bySubject.keySet())
+                .stream()
+                .collect(Collectors.toMap(UserAccount::getSubject, Function.identity()));
+
+        List<UserAccount> accounts = new ArrayList<>(bySubject.size());
+        for (UserAccountRequest request : bySubject.values()) {
+            UserAccount account = existing.get(request.subject());
+            if (account == null) {
+                account = UserAccount.builder()
+                        .subject(request.subject())
+                        .username(request.username())
+                        .email(request.email())
+                        .roles(new HashSet<>(request.roles()))
+                        .build();
+            } else {
+                account.setUsername(request.username());
+                account.setEmail(request.email());
+                account.getRoles().retainAll(request.roles());
+                account.getRoles().addAll(request.roles());
+            }
+            accounts.add(account);
+        }
+
+        List<UserAccountResponse> responses = repository.saveAllAndFlush(accounts)
+                .stream()
+                .map(UserAccountService::toResponse)
+                .toList();
+        eventPublisher.publishEvent(new UserAccountChangedEvent(List.copyOf(bySubject.keySet())));
+        return responses;
     }
 
     @Transactional
     public void delete(Long id) {
-        repository.deleteById(id);
+        repository.findById(id).ifPresent(account -> {
+            repository.delete(account);
+            eventPublisher.publishEvent(new UserAccountChangedEvent(account.getSubject()));
+        });
+    }
+
+    /**
+     * Runs {@code write} in its own transaction, starting over with fresh reads when another writer updated one
+     * of its accounts first. Retrying only helps when no transaction is active yet, as a joined one stays stale.
+     */
+    private <T> T retryOnConflict(Supplier<T> write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactions.execute(status -> write.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt == MAX_WRITE_ATTEMPTS) {
+                    throw ex;
+                }
+            }
+        }
     }
 
-    private static UserAccountResponse toResponse(UserAccount account) {
+    /**
+     * Sends {@code read} to the primary if it may concern a write a read replica has not replayed yet. Listings
+     * check for a write to any account, or the replica could serve a listing older than its ETag.
+     */
+    private static <T> T read(boolean recentlyWritten, Supplier<T> read) {
+        return recentlyWritten ? ReadReplicaDataSource.readFromPrimary(read) : read.get();
+    }
+
+    static UserAccountResponse toResponse(UserAccount account) {
         return new UserAccountResponse(
                 account.getId(),
                 account.getSubject(),
                 account.getUsername(),
                 account.getEmail(),
-                account.getRoles(),
-                account.getCreatedAt()
+                Set.copyOf(account.getRoles()),
+                account.getCreatedAt(),
+                account.getVersion()
         );
     }
 }
-
-
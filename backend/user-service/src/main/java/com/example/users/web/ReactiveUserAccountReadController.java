@@ -0,0 +1,71 @@
+package com.example.users.web;
+
+import com.example.users.dto.UserAccountPage;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.ReactiveUserAccountService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The same reads as {@link UserAccountReadController}, same paths, ETags and bodies, over R2DBC: the request
+ * thread is handed back to Tomcat while the database answers, and the NDJSON listing is read from the database
+ * only as fast as the client consumes it.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "users.reactive-reads.enabled", havingValue = "true")
+public class ReactiveUserAccountReadController {
+
+    private final ReactiveUserAccountService service;
+
+    @GetMapping("/users")
+    public Mono<ResponseEntity<UserAccountPage>> findAll(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "50") int size,
+                                                         WebRequest webRequest) {
+        String etag = UserAccountReadController.listingETag("users", service.listingVersion());
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return service.findPage(CursorCodec.decode(cursor), size).map(page -> {
+            List<UserAccountResponse> items = page.getContent();
+            String nextCursor = page.hasNext() ? CursorCodec.encode(items.get(items.size() - 1).id()) : null;
+            return ResponseEntity.ok()
+                    .cacheControl(UserAccountReadController.REVALIDATE)
+                    .eTag(etag)
+                    .body(new UserAccountPage(items, nextCursor));
+        });
+    }
+
+    @GetMapping(path = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<UserAccountResponse>> streamAll(WebRequest webRequest) {
+        String etag = UserAccountReadController.listingETag("users-ndjson", service.listingVersion());
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .cacheControl(UserAccountReadController.REVALIDATE)
+                .eTag(etag)
+                .body(service.streamAll());
+    }
+
+    @GetMapping("/users/me")
+    public Mono<ResponseEntity<UserAccountResponse>> currentUser(@AuthenticationPrincipal Jwt jwt) {
+        return service.getBySubject(jwt.getSubject()).map(account -> ResponseEntity.ok()
+                .cacheControl(UserAccountReadController.REVALIDATE)
+                .eTag("\"" + account.id() + "-" + account.version() + "\"")
+                .body(account));
+    }
+}
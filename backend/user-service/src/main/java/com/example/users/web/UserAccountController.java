@@ -1,36 +1,31 @@
 package com.example.users.web;
 
+import com.example.users.dto.UserAccountBatchRequest;
 import com.example.users.dto.UserAccountRequest;
 import com.example.users.dto.UserAccountResponse;
 import com.example.users.service.UserAccountService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
 
+/**
+ * Account writes, always through JPA. Reads are served by {@link UserAccountReadController} or, with
+ * {@code users.reactive-reads.enabled}, by {@link ReactiveUserAccountReadController}.
+ */
 @RestController
-@RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserAccountController {
 
     private final UserAccountService service;
 
-    @GetMapping
-    public List<UserAccountResponse> findAll() {
-        return service.findAll();
-    }
-
-    @GetMapping("/me")
-    public UserAccountResponse currentUser(@AuthenticationPrincipal Jwt jwt) {
-        return service.getBySubject(jwt.getSubject());
-    }
-
-    @PostMapping
+    @PostMapping("/users")
     public ResponseEntity<UserAccountResponse> upsert(@RequestBody @Valid UserAccountRequest request) {
         UserAccountResponse response = service.upsert(request);
         return ResponseEntity
@@ -38,11 +33,27 @@ public class UserAccountController {
                 .body(response);
     }
 
-    @DeleteMapping("/{id}")
+    /**
+     * Bulk provisioning endpoint for identity sync. Spelled out without a class-level
+     * {@code @RequestMapping} because pattern combination would turn it into {@code /users/:batch}.
+     */
+    @PostMapping("/users:batch")
+    public List<UserAccountResponse> upsertAll(@RequestBody @Valid UserAccountBatchRequest request) {
+        return service.upsertAll(request.requests());
+    }
+
+    @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
-
 
+    /**
+     * A write that kept losing version races against concurrent writers of the same account.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail conflict() {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The account was modified concurrently, retry the request");
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.users.web;
+
+import com.example.users.config.LongHeldConnections;
+import com.example.users.dto.UserAccountPage;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Account reads through JPA, one request thread per request for its whole duration.
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "users.reactive-reads.enabled", havingValue = "false", matchIfMissing = true)
+public class UserAccountReadController {
+
+    private static final byte NEWLINE = '\n';
+    // per-user responses: never shared, always revalidated with the ETag
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final UserAccountService service;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Answers {@code If-None-Match} with 304 before querying when no account changed since the client's copy.
+     */
+    @GetMapping("/users")
+    public ResponseEntity<UserAccountPage> findAll(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size,
+                                                   WebRequest webRequest) {
+        String etag = listingETag("users", service.listingVersion());
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        Slice<UserAccountResponse> page = service.findPage(CursorCodec.decode(cursor), size);
+        List<UserAccountResponse> items = page.getContent();
+        String nextCursor = page.hasNext() ? CursorCodec.encode(items.get(items.size() - 1).id()) : null;
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(new UserAccountPage(items, nextCursor));
+    }
+
+    /**
+     * Full listing as newline-delimited JSON, written while the database cursor is being read.
+     */
+    @GetMapping(path = "/users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll(WebRequest webRequest) {
+        String etag = listingETag("users-ndjson", service.listingVersion());
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ObjectWriter writer = objectMapper.writerFor(UserAccountResponse.class);
+        // the connection stays borrowed for as long as the client takes to read the listing
+        StreamingResponseBody body = out -> LongHeldConnections.hold(() -> service.streamAll(account -> {
+            try {
+                out.write(writer.writeValueAsBytes(account));
+                out.write(NEWLINE);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .cacheControl(REVALIDATE)
+                .eTag(etag)
+                .body(body);
+    }
+
+    /**
+     * Served from the account cache; a matching {@code If-None-Match} gets a 304 without serializing the body.
+     */
+    @GetMapping("/users/me")
+    public ResponseEntity<UserAccountResponse> currentUser(@AuthenticationPrincipal Jwt jwt) {
+        UserAccountResponse account = service.getBySubject(jwt.getSubject());
+        return ResponseEntity.ok()
+                .cacheControl(REVALIDATE)
+                .eTag("\"" + account.id() + "-" + account.version() + "\"")
+                .body(account);
+    }
+
+    /**
+     * No ETag while the listing version is unknown, so that no client is ever told a listing is unchanged then.
+     */
+    static String listingETag(String kind, String version) {
+        return version != null ? "\"" + kind + "-" + version + "\"" : null;
+    }
+}
@@ -0,0 +1,29 @@
+-- The schema Hibernate created with hbm2ddl=update before migrations. Existing databases are baselined at V0 and
+-- run this too, so it only adds what an older release's hbm2ddl had not created yet.
+create sequence if not exists user_accounts_seq start with 1 increment by 50;
+
+create table if not exists user_accounts (
+    id bigint not null,
+    subject varchar(255) not null unique,
+    username varchar(255) not null,
+    email varchar(255) not null unique,
+    createdAt timestamp(6) with time zone,
+    version bigint default 0 not null,
+    primary key (id)
+);
+
+-- added with optimistic locking
+alter table user_accounts add column if not exists version bigint default 0 not null;
+
+create table if not exists user_account_roles (
+    user_account_id bigint not null,
+    role varchar(255),
+    constraint fk_user_account_roles_account foreign key (user_account_id) references user_accounts
+);
+
+-- one row holding the table-wide version behind listing ETags, created by the first broadcast write
+create table if not exists user_account_listing (
+    id int not null check (id = 1),
+    version bigint not null,
+    primary key (id)
+);
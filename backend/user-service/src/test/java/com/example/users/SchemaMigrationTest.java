@@ -0,0 +1,76 @@
+package com.example.users;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Schema Migration Tests")
+class SchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:schema-migration;DB_CLOSE_DELAY=-1";
+    /**
+     * {@code allocationSize} of {@code UserAccount.id}'s sequence.
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    @Test
+    @DisplayName("Should migrate the schema even where the service itself is told not to")
+    void shouldMigrateSchema() {
+        // When
+        SchemaMigration.main(new String[] {
+                "--spring.datasource.url=" + URL,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.flyway.enabled=false"
+        });
+
+        // Then
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL", String.class))
+                .containsExactly("1", "2");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_accounts", Integer.class)).isZero();
+    }
+
+    @Test
+    @DisplayName("Should bring a database created by hbm2ddl before optimistic locking up to date")
+    void shouldMigrateSchemaCreatedByHibernate() {
+        // Given
+        String url = "jdbc:h2:mem:schema-migration-hbm2ddl;DB_CLOSE_DELAY=-1";
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        jdbcTemplate.execute("""
+                create table user_accounts (
+                    id bigint generated by default as identity,
+                    subject varchar(255) not null unique,
+                    username varchar(255) not null,
+                    email varchar(255) not null unique,
+                    createdAt timestamp(6) with time zone,
+                    primary key (id)
+                )""");
+        jdbcTemplate.update("insert into user_accounts (subject, username, email) values ('s', 'u', 'u@example.com')");
+
+        // When
+        SchemaMigration.main(new String[] {
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password="
+        });
+
+        // Then
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"version\" IS NOT NULL", String.class))
+                .containsExactly("0", "1", "2");
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM user_accounts", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_account_roles", Integer.class)).isZero();
+
+        // the lowest id of the next block Hibernate's pooled optimizer draws is free for a new account
+        long lowestId = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR user_accounts_seq", Long.class)
+                - ID_ALLOCATION_SIZE + 1;
+        jdbcTemplate.update("insert into user_accounts (id, subject, username, email) values (?, ?, ?, ?)",
+                lowestId, "s2", "u2", "u2@example.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user_accounts", Integer.class)).isEqualTo(2);
+    }
+}
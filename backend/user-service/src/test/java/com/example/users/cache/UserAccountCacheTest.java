@@ -0,0 +1,53 @@
+package com.example.users.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UserAccount Cache Tests")
+class UserAccountCacheTest {
+
+    private final UserAccountCache cache = new UserAccountCache(100, Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("Should not know the listing version until it is restored from the database")
+    void shouldNotKnowListingVersionUntilRestored() {
+        // When
+        cache.advanceListingVersion(42);
+        cache.invalidate("subject-1");
+
+        // Then
+        assertThat(cache.listingVersion()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should keep the highest listing version whatever order versions arrive in")
+    void shouldKeepHighestListingVersion() {
+        // Given
+        cache.restoreListingVersion(5);
+
+        // When
+        cache.advanceListingVersion(7);
+        cache.advanceListingVersion(6);
+
+        // Then
+        assertThat(cache.listingVersion()).isEqualTo("7");
+    }
+
+    @Test
+    @DisplayName("Should forget the listing version when writes may go unnoticed")
+    void shouldForgetListingVersion() {
+        // Given
+        cache.restoreListingVersion(5);
+
+        // When
+        cache.forgetListingVersion();
+        cache.advanceListingVersion(6);
+
+        // Then
+        assertThat(cache.listingVersion()).isNull();
+    }
+}
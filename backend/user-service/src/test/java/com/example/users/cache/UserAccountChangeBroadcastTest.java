@@ -0,0 +1,195 @@
+package com.example.users.cache;
+
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two caches with their own listeners stand in for two user-service replicas sharing one database.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("UserAccount Cache Broadcast Tests")
+class UserAccountChangeBroadcastTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    private UserAccountCache replicaA;
+    private UserAccountCache replicaB;
+    private UserAccountChangeListener listenerA;
+    private UserAccountChangeListener listenerB;
+    private UserAccountChangeNotifier notifier;
+    private TransactionTemplate transactionTemplate;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE user_account_listing (id int PRIMARY KEY, version bigint NOT NULL)");
+
+        replicaA = new UserAccountCache(100, Duration.ofMinutes(5));
+        replicaB = new UserAccountCache(100, Duration.ofMinutes(5));
+        // writes go through replica A
+        notifier = new UserAccountChangeNotifier(jdbcTemplate, replicaA);
+        listenerA = listener(replicaA);
+        listenerB = listener(replicaB);
+        listenerA.start();
+        listenerB.start();
+        awaitSubscribed(replicaA);
+        awaitSubscribed(replicaB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listenerA.stop();
+        listenerB.stop();
+        jdbcTemplate.execute("DROP TABLE user_account_listing");
+    }
+
+    @Test
+    @DisplayName("Should evict the subject on every replica only after the write commits")
+    void shouldEvictOnEveryReplicaAfterCommit() {
+        // Given
+        cache(replicaA, "subject-1");
+        cache(replicaB, "subject-1");
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            notifier.onAccountChanged(new UserAccountChangedEvent("subject-1"));
+            sleep(Duration.ofMillis(500));
+
+            // Then: nothing is delivered while the transaction is open (checked off-thread, since the
+            // cache is bypassed inside a read-write transaction)
+            assertThat(CompletableFuture.supplyAsync(() -> isCached(replicaA, "subject-1")).join()).isTrue();
+            assertThat(CompletableFuture.supplyAsync(() -> isCached(replicaB, "subject-1")).join()).isTrue();
+        });
+
+        // Then
+        await(() -> !isCached(replicaA, "subject-1") && !isCached(replicaB, "subject-1"));
+    }
+
+    @Test
+    @DisplayName("Should keep cached entries when the write rolls back")
+    void shouldKeepCachedEntriesWhenWriteRollsBack() {
+        // Given
+        cache(replicaA, "subject-1");
+        cache(replicaB, "subject-1");
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            notifier.onAccountChanged(new UserAccountChangedEvent("subject-1"));
+            status.setRollbackOnly();
+        });
+
+        // Then: a later notification arrives, so the rolled back one would have been seen already
+        cache(replicaA, "marker");
+        cache(replicaB, "marker");
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.onAccountChanged(new UserAccountChangedEvent("marker")));
+        await(() -> !isCached(replicaA, "marker") && !isCached(replicaB, "marker"));
+        assertThat(isCached(replicaA, "subject-1")).isTrue();
+        assertThat(isCached(replicaB, "subject-1")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should evict every subject of a batch on every replica")
+    void shouldEvictWholeBatchOnEveryReplica() {
+        // Given
+        List<String> subjects = List.of("subject-1", "subject-2", "subject-3");
+        subjects.forEach(subject -> {
+            cache(replicaA, subject);
+            cache(replicaB, subject);
+        });
+
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.onAccountChanged(new UserAccountChangedEvent(subjects)));
+
+        // Then
+        await(() -> subjects.stream().noneMatch(subject -> isCached(replicaA, subject) || isCached(replicaB, subject)));
+    }
+
+    @Test
+    @DisplayName("Should give every replica the same listing version, which the writer has on return")
+    void shouldShareListingVersionAcrossReplicas() {
+        // Given
+        String before = replicaB.listingVersion();
+
+        // When
+        transactionTemplate.executeWithoutResult(status ->
+                notifier.onAccountChanged(new UserAccountChangedEvent("subject-1")));
+
+        // Then
+        String after = replicaA.listingVersion();
+        assertThat(after).isNotNull().isNotEqualTo(before);
+        await(() -> after.equals(replicaB.listingVersion()));
+    }
+
+    private static UserAccountChangeListener listener(UserAccountCache cache) {
+        return new UserAccountChangeListener(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), cache);
+    }
+
+    /**
+     * The listener flushes the cache once LISTEN is in place, so a probe that disappears proves the subscription.
+     */
+    private void awaitSubscribed(UserAccountCache cache) {
+        await(() -> {
+            cache(cache, "probe");
+            transactionTemplate.executeWithoutResult(status ->
+                    notifier.onAccountChanged(new UserAccountChangedEvent("probe")));
+            sleep(Duration.ofMillis(100));
+            return !isCached(cache, "probe");
+        });
+    }
+
+    private static void cache(UserAccountCache cache, String subject) {
+        cache.get(subject, key -> new UserAccountResponse(1L, key, "user", "user@example.com",
+                Set.of("ROLE_USER"), Instant.now(), 0L));
+    }
+
+    private static boolean isCached(UserAccountCache cache, String subject) {
+        return cache.get(subject, key -> null) != null;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        while (!condition.getAsBoolean()) {
+            assertThat(Instant.now()).as("condition not met within %s", TIMEOUT).isBefore(deadline);
+            sleep(Duration.ofMillis(50));
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.users.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Adaptive Pool Sizer Tests")
+class AdaptivePoolSizerTest {
+
+    private static final String POOL = "TestPool";
+
+    @Mock
+    private HikariConfigMXBean config;
+
+    @Mock
+    private HikariPoolMXBean pool;
+
+    private MeterRegistry meterRegistry;
+    private AdaptivePoolSizer sizer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(config.getPoolName()).thenReturn(POOL);
+        when(config.getMinimumIdle()).thenReturn(5);
+        AdaptivePoolProperties properties = new AdaptivePoolProperties(true, 4, 20, 2, Duration.ofSeconds(10),
+                Duration.ofMillis(5), Duration.ofMillis(100));
+        sizer = new AdaptivePoolSizer(config, pool, null, meterRegistry, properties);
+    }
+
+    @Test
+    @DisplayName("Should grow while borrowers wait and shrink while the database is slow, within bounds")
+    void shouldSizeWithinBounds() {
+        // When / Then
+        assertThat(sizer.targetSize(10, millis(20), millis(10), 0, 10)).isEqualTo(12);
+        assertThat(sizer.targetSize(10, millis(1), millis(10), 3, 10)).isEqualTo(12);
+        assertThat(sizer.targetSize(20, millis(20), millis(10), 3, 20)).isEqualTo(20);
+        assertThat(sizer.targetSize(10, millis(20), millis(150), 3, 10)).isEqualTo(8);
+        assertThat(sizer.targetSize(10, millis(1), millis(10), 0, 4)).isEqualTo(9);
+        assertThat(sizer.targetSize(4, millis(1), millis(10), 0, 0)).isEqualTo(4);
+        assertThat(sizer.targetSize(10, millis(1), millis(10), 0, 8)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Should resize the pool from the timers' means over the last interval")
+    void shouldResizeFromTimers() {
+        // Given
+        Timer acquire = meterRegistry.timer(AdaptivePoolSizer.ACQUIRE_TIMER, "pool", POOL);
+        Timer usage = meterRegistry.timer(AdaptivePoolSizer.USAGE_TIMER, "pool", POOL);
+        acquire.record(Duration.ofSeconds(1));
+        when(config.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getActiveConnections()).thenReturn(10);
+        sizer.adjust();
+
+        // When: borrowers waited 20ms on average since the first sample
+        acquire.record(Duration.ofMillis(10));
+        acquire.record(Duration.ofMillis(30));
+        usage.record(Duration.ofMillis(10));
+        sizer.adjust();
+
+        // Then
+        verify(config).setMaximumPoolSize(12);
+        verify(config).setMinimumIdle(5);
+    }
+
+    @Test
+    @DisplayName("Should leave connections held on purpose out of the mean usage time")
+    void shouldIgnoreConnectionsHeldOnPurpose() {
+        // Given
+        Timer acquire = meterRegistry.timer(AdaptivePoolSizer.ACQUIRE_TIMER, "pool", POOL);
+        Timer usage = meterRegistry.timer(AdaptivePoolSizer.USAGE_TIMER, "pool", POOL);
+        Timer held = meterRegistry.timer(LongHeldConnections.HELD_TIMER, "pool", POOL);
+        when(config.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getActiveConnections()).thenReturn(10);
+        sizer.adjust();
+
+        // When: borrowers waited while an export held a connection for ten minutes
+        acquire.record(Duration.ofMillis(20));
+        usage.record(Duration.ofMillis(10));
+        usage.record(Duration.ofMillis(10));
+        usage.record(Duration.ofMinutes(10));
+        held.record(Duration.ofMinutes(10));
+        sizer.adjust();
+
+        // Then: the pool grows rather than shrinking as if the database were slow
+        verify(config).setMaximumPoolSize(12);
+    }
+
+    @Test
+    @DisplayName("Should leave the pool alone without its timers")
+    void shouldLeavePoolAloneWithoutTimers() {
+        // When
+        sizer.adjust();
+        sizer.adjust();
+
+        // Then
+        verify(config, never()).setMaximumPoolSize(anyInt());
+    }
+
+    private static long millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.users.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CachingJwtDecoder Tests")
+class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Mock
+    private JwtDecoder delegate;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        decoder = new CachingJwtDecoder(delegate, 100, clock, nanos::get);
+    }
+
+    @Test
+    @DisplayName("Should verify a reused token only once")
+    void shouldVerifyReusedTokenOnce() {
+        // Given
+        Jwt jwt = jwt(NOW.plusSeconds(300));
+        when(delegate.decode("token-1")).thenReturn(jwt);
+
+        // When
+        Jwt first = decoder.decode("token-1");
+        Jwt second = decoder.decode("token-1");
+
+        // Then
+        assertThat(first).isSameAs(jwt);
+        assertThat(second).isSameAs(jwt);
+        verify(delegate, times(1)).decode("token-1");
+    }
+
+    @Test
+    @DisplayName("Should drop the entry once the token expires")
+    void shouldExpireWithToken() {
+        // Given
+        when(delegate.decode("token-1")).thenReturn(jwt(NOW.plusSeconds(300)));
+        decoder.decode("token-1");
+
+        // When
+        nanos.addAndGet(Duration.ofSeconds(301).toNanos());
+        decoder.decode("token-1");
+
+        // Then
+        verify(delegate, times(2)).decode("token-1");
+    }
+
+    @Test
+    @DisplayName("Should not cache tokens without an expiry")
+    void shouldNotCacheTokensWithoutExpiry() {
+        // Given
+        when(delegate.decode("token-1")).thenReturn(jwt(null));
+
+        // When
+        decoder.decode("token-1");
+        decoder.decode("token-1");
+
+        // Then
+        verify(delegate, times(2)).decode("token-1");
+    }
+
+    @Test
+    @DisplayName("Should not cache failed decodes")
+    void shouldNotCacheFailures() {
+        // Given
+        when(delegate.decode("bad-token")).thenThrow(new BadJwtException("invalid signature"));
+
+        // When/Then
+        assertThatThrownBy(() -> decoder.decode("bad-token")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad-token")).isInstanceOf(BadJwtException.class);
+        verify(delegate, times(2)).decode("bad-token");
+    }
+
+    @Test
+    @DisplayName("Should expose hit and miss metrics")
+    void shouldExposeMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        decoder.bindTo(registry);
+        when(delegate.decode("token-1")).thenReturn(jwt(NOW.plusSeconds(300)));
+
+        // When
+        decoder.decode("token-1");
+        decoder.decode("token-1");
+
+        // Then
+        assertThat(registry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("cache.gets").tag("cache", CachingJwtDecoder.CACHE_NAME).tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        Jwt.Builder builder = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-subject")
+                .issuedAt(NOW);
+        if (expiresAt != null) {
+            builder.expiresAt(expiresAt);
+        }
+        return builder.build();
+    }
+}
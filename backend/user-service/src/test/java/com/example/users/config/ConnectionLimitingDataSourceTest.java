@@ -0,0 +1,116 @@
+package com.example.users.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Connection Limiting DataSource Tests")
+class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(pool.getConnection()).thenReturn(connection);
+        dataSource = new ConnectionLimitingDataSource(pool, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    @DisplayName("Should time out while every connection is borrowed")
+    void shouldTimeOutWhileEveryConnectionIsBorrowed() throws SQLException {
+        // Given
+        dataSource.getConnection();
+
+        // When / Then
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("timed out after 50ms");
+    }
+
+    @Test
+    @DisplayName("Should hand the permit on when a connection is closed, once")
+    void shouldReleasePermitOnceOnClose() throws SQLException {
+        // Given
+        Connection first = dataSource.getConnection();
+
+        // When
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        // Then
+        verify(connection, times(2)).close();
+        assertThat(second).isNotNull();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    @DisplayName("Should delegate calls to the pooled connection")
+    void shouldDelegateToPooledConnection() throws SQLException {
+        // Given
+        when(connection.isValid(anyInt())).thenReturn(true);
+
+        // When
+        try (Connection borrowed = dataSource.getConnection()) {
+            // Then
+            assertThat(borrowed.isValid(5)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("Should release the permit when the pool fails")
+    void shouldReleasePermitWhenPoolFails() throws SQLException {
+        // Given
+        when(pool.getConnection()).thenThrow(new SQLException("down")).thenReturn(connection);
+
+        // When
+        assertThatThrownBy(dataSource::getConnection).hasMessage("down");
+
+        // Then
+        assertThat(dataSource.getConnection()).isNotNull();
+        verify(pool, times(2)).getConnection();
+        assertThat(dataSource.waiting()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should follow a resized pool, retiring surplus permits as they come back")
+    void shouldFollowResizedPool() throws SQLException {
+        // Given
+        dataSource.resize(2);
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        // When
+        dataSource.resize(1);
+        first.close();
+
+        // Then
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        second.close();
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.users.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "users.datasource.adaptive-pool.enabled=true",
+        "users.datasource.adaptive-pool.interval=1h"
+})
+@ActiveProfiles("test")
+@DisplayName("Connection Pool Metrics Tests")
+class ConnectionPoolMetricsTest {
+
+    private static final String POOL = "UserServiceHikariPool";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MetricsProperties metricsProperties;
+
+    @Autowired
+    private AdaptivePoolSizer adaptivePoolSizer;
+
+    @Test
+    @DisplayName("Should publish the pool's gauges and acquire time as a histogram")
+    void shouldPublishPoolMetrics() throws Exception {
+        // When
+        try (Connection connection = dataSource.getConnection()) {
+            assertThat(connection.isValid(5)).isTrue();
+        }
+
+        // Then
+        for (String gauge : new String[] {"active", "idle", "pending", "max"}) {
+            assertThat(meterRegistry.find("hikaricp.connections." + gauge).tag("pool", POOL).gauge())
+                    .as(gauge).isNotNull();
+        }
+        Timer acquire = meterRegistry.get(AdaptivePoolSizer.ACQUIRE_TIMER).tag("pool", POOL).timer();
+        assertThat(acquire.count()).isPositive();
+        assertThat(meterRegistry.find(LongHeldConnections.HELD_TIMER).tag("pool", POOL).timer()).isNotNull();
+        // the test registry keeps no buckets, so check that the exporting registries are asked for them
+        assertThat(metricsProperties.getDistribution().getPercentilesHistogram())
+                .containsEntry("hikaricp.connections", true);
+    }
+
+    @Test
+    @DisplayName("Should resize the application's pool once enabled")
+    void shouldResizeApplicationPool() {
+        // When: two samples without any borrowing in between, with no connection in use
+        adaptivePoolSizer.adjust();
+        adaptivePoolSizer.adjust();
+
+        // Then: one connection released towards the lower bound
+        assertThat(meterRegistry.get("hikaricp.connections.max").tag("pool", POOL).gauge().value()).isEqualTo(9);
+    }
+}
@@ -4,7 +4,9 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 
 import javax.sql.DataSource;
@@ -12,6 +14,8 @@ import javax.sql.DataSource;
 import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(HibernateConfig.class)
 @ActiveProfiles("test")
 @DisplayName("Hibernate Configuration Tests")
 class HibernateConfigTest {
@@ -31,6 +35,17 @@ class HibernateConfigTest {
         assertThat(hikariDataSource.getMinimumIdle()).isGreaterThan(0);
     }
 
+    @Test
+    @DisplayName("Should size the pool from spring.datasource.hikari")
+    void shouldSizePoolFromConfiguration() {
+        // Then: the values in application.yml
+        HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+        assertThat(hikariDataSource.getMaximumPoolSize()).isEqualTo(10);
+        assertThat(hikariDataSource.getMinimumIdle()).isEqualTo(5);
+        assertThat(hikariDataSource.getLeakDetectionThreshold()).isEqualTo(60000);
+        assertThat(hikariDataSource.getPoolName()).isEqualTo("UserServiceHikariPool");
+    }
+
     @Test
     @DisplayName("Should have valid connection")
     void shouldHaveValidConnection() throws Exception {
@@ -0,0 +1,126 @@
+package com.example.users.config;
+
+import com.example.common.security.InternalIdentityCodec;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountService;
+import com.example.users.web.UserAccountController;
+import com.example.users.web.UserAccountReadController;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({UserAccountController.class, UserAccountReadController.class})
+@Import(SecurityConfig.class)
+@TestPropertySource(properties = "users.security.internal-identity.secret=" + InternalIdentityAuthenticationTest.SECRET)
+@DisplayName("Internal Identity Authentication Tests")
+class InternalIdentityAuthenticationTest {
+
+    static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserAccountService service;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        when(service.getBySubject("test-subject")).thenReturn(new UserAccountResponse(
+                1L, "test-subject", "testuser", "test@example.com", Set.of("ROLE_USER"), Instant.now(), 0L));
+    }
+
+    @Test
+    @DisplayName("Should authenticate from a signed internal identity without decoding the JWT")
+    void shouldAuthenticateFromInternalIdentity() throws Exception {
+        mockMvc.perform(get("/users/me")
+                        .header(InternalIdentityDecoder.HEADER, identity(SECRET, "test-subject", Instant.now().plusSeconds(300), "user"))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subject").value("test-subject"));
+
+        verify(jwtDecoder, never()).decode(anyString());
+    }
+
+    @Test
+    @DisplayName("Should authorize on the roles carried by the internal identity")
+    void shouldAuthorizeOnInternalIdentityRoles() throws Exception {
+        mockMvc.perform(get("/users")
+                        .header(InternalIdentityDecoder.HEADER, identity(SECRET, "test-subject", Instant.now().plusSeconds(300), "user")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Should reject an internal identity signed with another secret")
+    void shouldRejectForgedInternalIdentity() throws Exception {
+        mockMvc.perform(get("/users/me")
+                        .header(InternalIdentityDecoder.HEADER,
+                                identity("fedcba9876543210fedcba9876543210", "test-subject", Instant.now().plusSeconds(300), "admin")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should reject an internal identity expired for longer than the clock skew")
+    void shouldRejectExpiredInternalIdentity() throws Exception {
+        Instant expiresAt = Instant.now().minus(InternalIdentityCodec.CLOCK_SKEW).minusSeconds(1);
+        mockMvc.perform(get("/users/me")
+                        .header(InternalIdentityDecoder.HEADER, identity(SECRET, "test-subject", expiresAt, "user")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Should fall back to JWT validation without an internal identity")
+    void shouldFallBackToJwtValidation() throws Exception {
+        when(jwtDecoder.decode("token")).thenReturn(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-subject")
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .build());
+
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isOk());
+
+        verify(jwtDecoder).decode("token");
+    }
+
+    private String identity(String secret, String subject, Instant expiresAt, String... roles) throws Exception {
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        String payload = base64.encodeToString(objectMapper.writeValueAsBytes(
+                Map.of("sub", subject, "exp", expiresAt.getEpochSecond(), "roles", List.of(roles))));
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return payload + "." + base64.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.users.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KeycloakRealmRoleConverter Tests")
+class KeycloakRealmRoleConverterTest {
+
+    private KeycloakRealmRoleConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        converter = new KeycloakRealmRoleConverter();
+    }
+
+    @Test
+    @DisplayName("Should map realm roles to upper-case ROLE_ authorities")
+    void shouldMapRealmRolesToAuthorities() {
+        Collection<GrantedAuthority> authorities = converter.convert(jwt(Map.of("roles", List.of("user", "Admin", 42))));
+
+        assertThat(authorities).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should return empty authorities without realm roles")
+    void shouldReturnEmptyWithoutRealmRoles() {
+        assertThat(converter.convert(jwt(Map.of()))).isEmpty();
+        assertThat(converter.convert(jwt(Map.of("roles", "user")))).isEmpty();
+        assertThat(converter.convert(Jwt.withTokenValue("token").header("alg", "RS256").claim("sub", "s").build()))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reuse the immutable authority set for a repeated role list")
+    void shouldReuseAuthoritySetForRepeatedRoles() {
+        Collection<GrantedAuthority> first = converter.convert(jwt(Map.of("roles", List.of("user", "admin"))));
+        Collection<GrantedAuthority> second = converter.convert(jwt(Map.of("roles", new ArrayList<>(List.of("user", "admin")))));
+
+        assertThat(second).isSameAs(first);
+        assertThatThrownBy(() -> first.clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    @DisplayName("Should not be affected by later changes to the claim list")
+    void shouldCopyRoleListUsedAsCacheKey() {
+        List<Object> roles = new ArrayList<>(List.of("user"));
+        converter.convert(jwt(Map.of("roles", roles)));
+        roles.add("admin");
+
+        assertThat(converter.convert(jwt(Map.of("roles", List.of("user"))))).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER");
+        assertThat(converter.convert(jwt(Map.of("roles", roles)))).extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    private static Jwt jwt(Map<String, Object> realmAccess) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-subject")
+                .claim("realm_access", realmAccess)
+                .build();
+    }
+}
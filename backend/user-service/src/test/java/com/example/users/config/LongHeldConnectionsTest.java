@@ -0,0 +1,43 @@
+package com.example.users.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Long Held Connections Tests")
+class LongHeldConnectionsTest {
+
+    private static final String POOL = "TestPool";
+
+    @Test
+    @DisplayName("Should record as held only the usage of connections closed inside hold")
+    void shouldRecordHeldUsageInsideHoldOnly() {
+        // Given
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IMetricsTracker tracker = LongHeldConnections.metricsTrackerFactory(meterRegistry)
+                .create(POOL, new PoolStats(0) {
+                    @Override
+                    protected void update() {
+                    }
+                });
+
+        // When
+        tracker.recordConnectionUsageMillis(10);
+        LongHeldConnections.hold(() -> tracker.recordConnectionUsageMillis(60_000));
+
+        // Then
+        Timer usage = meterRegistry.get(AdaptivePoolSizer.USAGE_TIMER).tag("pool", POOL).timer();
+        Timer held = meterRegistry.get(LongHeldConnections.HELD_TIMER).tag("pool", POOL).timer();
+        assertThat(usage.count()).isEqualTo(2);
+        assertThat(held.count()).isEqualTo(1);
+        assertThat(held.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(60_000);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.users.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Read Replica DataSource Tests")
+class ReadReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private ReplicaLagMonitor monitor;
+
+    private ReadReplicaDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica.getConnection()).thenReturn(replicaConnection);
+        when(monitor.replica()).thenReturn(replica);
+        dataSource = new ReadReplicaDataSource(monitor, primary);
+    }
+
+    @Test
+    @DisplayName("Should read from the replica while it is within the maximum lag")
+    void shouldReadFromReplicaWithinMaxLag() throws SQLException {
+        // Given
+        when(monitor.isWithinMaxLag()).thenReturn(true);
+
+        // When / Then
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the primary while the replica lags")
+    void shouldFallBackToPrimaryWhileReplicaLags() throws SQLException {
+        // Given
+        when(monitor.isWithinMaxLag()).thenReturn(false);
+
+        // When / Then
+        assertThat(dataSource.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    @DisplayName("Should read from the primary when asked to, including nested reads, and only then")
+    void shouldReadFromPrimaryWhenAsked() throws SQLException {
+        // Given
+        lenient().when(monitor.isWithinMaxLag()).thenReturn(true);
+
+        // When
+        Connection nested = ReadReplicaDataSource.readFromPrimary(
+                () -> ReadReplicaDataSource.readFromPrimary(this::connection));
+        Connection afterNested = ReadReplicaDataSource.readFromPrimary(this::connection);
+
+        // Then
+        assertThat(nested).isSameAs(primaryConnection);
+        assertThat(afterNested).isSameAs(primaryConnection);
+        assertThat(dataSource.getConnection()).isSameAs(replicaConnection);
+    }
+
+    private Connection connection() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.users.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Replica Lag Monitor Tests")
+class ReplicaLagMonitorTest {
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        ReadReplicaProperties properties = new ReadReplicaProperties(true, "jdbc:postgresql://replica/users",
+                "app", "app", Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofSeconds(60));
+        monitor = new ReplicaLagMonitor(replica, jdbcTemplate, properties);
+    }
+
+    @Test
+    @DisplayName("Should not trust the replica before the first check")
+    void shouldNotTrustReplicaBeforeFirstCheck() {
+        // Then
+        assertThat(monitor.isWithinMaxLag()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should serve reads from the replica until it falls behind by more than the maximum lag")
+    void shouldTrackLagAgainstMaximum() {
+        // Given
+        when(jdbcTemplate.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class, 60.0)).thenReturn(4.5, 5.5, 0.0);
+
+        // When / Then
+        monitor.check();
+        assertThat(monitor.isWithinMaxLag()).isTrue();
+        monitor.check();
+        assertThat(monitor.isWithinMaxLag()).isFalse();
+        monitor.check();
+        assertThat(monitor.isWithinMaxLag()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should treat an unknown lag or a failed check as too far behind")
+    void shouldTreatUnknownLagAsBehind() {
+        // Given
+        when(jdbcTemplate.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class, 60.0))
+                .thenReturn(0.0)
+                .thenReturn(null)
+                .thenReturn(0.0)
+                .thenThrow(new DataAccessResourceFailureException("replica down"));
+
+        // When / Then
+        monitor.check();
+        monitor.check();
+        assertThat(monitor.isWithinMaxLag()).isFalse();
+        monitor.check();
+        monitor.check();
+        assertThat(monitor.isWithinMaxLag()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should treat a replica without a recently heard-from WAL receiver as behind")
+    void shouldTreatReplicaWithoutLiveReceiverAsBehind() {
+        // Given
+        ReadReplicaProperties properties = new ReadReplicaProperties(true, "jdbc:postgresql://replica/users",
+                "app", "app", Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofMillis(1500));
+        ReplicaLagMonitor disconnected = new ReplicaLagMonitor(replica, jdbcTemplate, properties);
+        when(jdbcTemplate.queryForObject(ReplicaLagMonitor.LAG_QUERY, Double.class, 1.5)).thenReturn(0.0, null);
+
+        // When / Then
+        disconnected.check();
+        assertThat(disconnected.isWithinMaxLag()).isTrue();
+        disconnected.check();
+        assertThat(disconnected.isWithinMaxLag()).isFalse();
+        assertThat(ReplicaLagMonitor.LAG_QUERY).contains("pg_stat_wal_receiver", "status = 'streaming'");
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.users.integration;
+
+import com.example.users.domain.UserAccount;
+import com.example.users.repository.UserAccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DisplayName("Metrics Export Integration Tests")
+class MetricsExportIntegrationTest {
+
+    private static final String SUBJECT = "metrics-subject";
+    private static final String OPENMETRICS = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserAccountRepository repository;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @BeforeEach
+    void setUp() {
+        if (repository.findBySubject(SUBJECT).isEmpty()) {
+            repository.save(UserAccount.builder()
+                    .subject(SUBJECT)
+                    .username("metrics")
+                    .email("metrics@example.com")
+                    .roles(Set.of("ROLE_USER"))
+                    .build());
+        }
+        when(jwtDecoder.decode("token")).thenReturn(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", SUBJECT)
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build());
+        when(jwtDecoder.decode("forged")).thenThrow(new BadJwtException("Invalid signature"));
+    }
+
+    @Test
+    @DisplayName("Should export the hot paths as histograms with the SLO buckets")
+    void shouldExportHotPathHistograms() throws Exception {
+        // Given
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer forged"))
+                .andExpect(status().isUnauthorized());
+
+        // When
+        List<String> scrape = scrape("text/plain");
+
+        // Then
+        assertThat(scrape)
+                .anyMatch(bucket("http_server_requests_seconds", "uri=\"/users/me\"", "le=\"0.025\""))
+                .anyMatch(bucket("users_service_seconds", "method=\"getBySubject\"", "le=\"0.025\""))
+                .anyMatch(bucket("spring_data_repository_invocations_seconds", "method=\"findBySubject\"", "le=\"0.025\""))
+                .anyMatch(bucket("users_jdbc_execution_seconds", "le=\"0.025\""))
+                .anyMatch(bucket("users_jdbc_statements", "le=\"1.0\""))
+                .anyMatch(bucket("users_security_jwt_decode_seconds", "accepted=\"true\"", "decoder=\"bearer\""))
+                .anyMatch(bucket("users_security_jwt_decode_seconds", "accepted=\"false\"", "decoder=\"bearer\""))
+                .anyMatch(bucket("users_security_roles_seconds", "le=\"1.0E-4\""));
+    }
+
+    @Test
+    @DisplayName("Should link a sampled request's latency bucket to its trace")
+    void shouldExportExemplars() throws Exception {
+        // Given
+        mockMvc.perform(get("/users/me").header(HttpHeaders.AUTHORIZATION, "Bearer token"))
+                .andExpect(status().isOk());
+
+        // When
+        List<String> scrape = scrape(OPENMETRICS);
+
+        // Then
+        assertThat(scrape).anyMatch(line -> bucket("http_server_requests_seconds", "uri=\"/users/me\"").test(line)
+                && line.contains("# {span_id=\"") && line.contains("trace_id=\""));
+    }
+
+    private List<String> scrape(String accept) throws Exception {
+        return mockMvc.perform(get("/actuator/prometheus").header(HttpHeaders.ACCEPT, accept))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .lines()
+                .toList();
+    }
+
+    private static Predicate<String> bucket(String metric, String... labels) {
+        return line -> line.startsWith(metric + "_bucket{") && Stream.of(labels).allMatch(line::contains);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.users.integration;
+
+import com.example.users.config.ReplicaLagMonitor;
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two independent databases stand in for a primary and its streaming replica. Nothing replicates between them,
+ * so an account that differs between the two shows which one a read went to, and an account that exists only
+ * on the primary stands for a write the replica has not replayed yet.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Read Replica Routing Tests")
+class ReadReplicaRoutingTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Container
+    static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>("postgres:16");
+
+    @Container
+    static final PostgreSQLContainer<?> REPLICA = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("users.datasource.read-replica.enabled", () -> "true");
+        registry.add("users.datasource.read-replica.url", REPLICA::getJdbcUrl);
+        registry.add("users.datasource.read-replica.username", REPLICA::getUsername);
+        registry.add("users.datasource.read-replica.password", REPLICA::getPassword);
+        registry.add("users.datasource.read-replica.lag-check-interval", () -> "100ms");
+    }
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private UserAccountService service;
+
+    @Autowired
+    private JdbcTemplate primary;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        replica = new JdbcTemplate(new DriverManagerDataSource(
+                REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword()));
+        replica.execute("""
+                CREATE TABLE user_accounts (
+                    id bigint PRIMARY KEY,
+                    subject varchar(255) NOT NULL UNIQUE,
+                    username varchar(255) NOT NULL,
+                    email varchar(255) NOT NULL UNIQUE,
+                    createdAt timestamp(6) with time zone,
+                    version bigint DEFAULT 0 NOT NULL)""");
+        replica.execute("""
+                CREATE TABLE user_account_roles (
+                    user_account_id bigint NOT NULL REFERENCES user_accounts,
+                    role varchar(255))""");
+    }
+
+    @BeforeEach
+    void awaitReplica() throws InterruptedException {
+        Instant deadline = Instant.now().plus(TIMEOUT);
+        while (!monitor.isWithinMaxLag()) {
+            assertThat(Instant.now()).as("replica lag check").isBefore(deadline);
+            Thread.sleep(50);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (JdbcTemplate database : new JdbcTemplate[] {primary, replica}) {
+            database.update("DELETE FROM user_account_roles");
+            database.update("DELETE FROM user_accounts");
+        }
+    }
+
+    @Test
+    @DisplayName("Should read an account nobody wrote recently from the replica")
+    void shouldReadFromReplica() {
+        // Given
+        insert(primary, "routed-subject", "on-primary");
+        insert(replica, "routed-subject", "on-replica");
+
+        // When
+        UserAccountResponse account = service.getBySubject("routed-subject");
+
+        // Then
+        assertThat(account.username()).isEqualTo("on-replica");
+    }
+
+    @Test
+    @DisplayName("Should read an account and listings from the primary right after a write")
+    void shouldReadOwnWriteFromPrimary() {
+        // Given: a write the replica has not replayed
+        service.upsert(new UserAccountRequest("written-subject", "written", "written@example.com",
+                Set.of("ROLE_USER")));
+
+        // When
+        UserAccountResponse account = service.getBySubject("written-subject");
+
+        // Then
+        assertThat(account.username()).isEqualTo("written");
+        assertThat(service.findPage(0L, 50).getContent())
+                .extracting(UserAccountResponse::subject)
+                .contains("written-subject");
+    }
+
+    private static void insert(JdbcTemplate database, String subject, String username) {
+        database.update("INSERT INTO user_accounts (id, subject, username, email, createdAt, version) "
+                + "VALUES (1000000, ?, ?, ?, now(), 0)", subject, username, username + "@example.com");
+        database.update("INSERT INTO user_account_roles (user_account_id, role) VALUES (1000000, 'ROLE_USER')");
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.users.integration;
+
+import com.example.users.domain.UserAccount;
+import com.example.users.repository.UserAccountRepository;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "users.tracing.tail-sampling.slow-threshold=0ms")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+@DisplayName("Tracing Integration Tests")
+class TracingIntegrationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String GATEWAY_SPAN_ID = "00f067aa0ba902b7";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserAccountRepository repository;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter collector;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    private String subject;
+
+    @BeforeEach
+    void setUp() {
+        subject = "traced-" + UUID.randomUUID();
+        repository.save(UserAccount.builder()
+                .subject(subject)
+                .username("traced")
+                .email("traced@example.com")
+                .roles(Set.of("ROLE_USER"))
+                .build());
+        when(jwtDecoder.decode("token")).thenReturn(Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", subject)
+                .claim("realm_access", Map.of("roles", List.of("user")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build());
+        collector.reset();
+    }
+
+    @Test
+    @DisplayName("Should continue the caller's trace through security, the service and its JDBC statements")
+    void shouldTraceRequestDownToJdbc() throws Exception {
+        // Given
+        String traceparent = "00-" + TRACE_ID + "-" + GATEWAY_SPAN_ID + "-01";
+
+        // When
+        mockMvc.perform(get("/users/me")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer token")
+                        .header("traceparent", traceparent))
+                .andExpect(status().isOk());
+        tracerProvider.forceFlush().join(10, TimeUnit.SECONDS);
+
+        // Then
+        List<SpanData> trace = collector.getFinishedSpanItems().stream()
+                .filter(span -> span.getTraceId().equals(TRACE_ID))
+                .toList();
+        SpanData server = single(trace, span -> span.getKind() == SpanKind.SERVER);
+        assertThat(server.getParentSpanId()).isEqualTo(GATEWAY_SPAN_ID);
+        assertThat(server.getParentSpanContext().isRemote()).isTrue();
+
+        assertThat(trace).anyMatch(span -> span.getName().equals("security filterchain before"));
+        assertThat(trace).anyMatch(span -> span.getName().equals("authenticate bearertoken"));
+        assertThat(trace).anyMatch(span -> span.getName().equals("authorize request"));
+
+        SpanData service = single(trace, span -> span.getName().equals("user-account-service#get-by-subject"));
+        assertThat(trace).filteredOn(span -> span.getName().equals("jdbc statement"))
+                .isNotEmpty()
+                .allMatch(span -> descendsFrom(span, service, trace));
+        assertThat(trace).allMatch(span -> span == server || descendsFrom(span, server, trace));
+    }
+
+    private static SpanData single(List<SpanData> trace, Predicate<SpanData> match) {
+        List<SpanData> matching = trace.stream().filter(match).toList();
+        assertThat(matching).as("spans of %s", trace.stream().map(SpanData::getName).toList()).hasSize(1);
+        return matching.get(0);
+    }
+
+    private static boolean descendsFrom(SpanData span, SpanData ancestor, List<SpanData> trace) {
+        String parentId = span.getParentSpanId();
+        while (true) {
+            if (parentId.equals(ancestor.getSpanId())) {
+                return true;
+            }
+            String current = parentId;
+            SpanData parent = trace.stream().filter(candidate -> candidate.getSpanId().equals(current)).findFirst().orElse(null);
+            if (parent == null) {
+                return false;
+            }
+            parentId = parent.getParentSpanId();
+        }
+    }
+
+    @TestConfiguration
+    static class Collector {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+}
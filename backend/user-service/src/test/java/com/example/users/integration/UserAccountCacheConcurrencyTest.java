@@ -0,0 +1,122 @@
+package com.example.users.integration;
+
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("UserAccountCache Concurrency Tests")
+class UserAccountCacheConcurrencyTest {
+
+    private static final String SUBJECT = "cache-subject";
+    private static final int WRITES = 200;
+    private static final int READERS = 4;
+
+    @Autowired
+    private UserAccountService service;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        try {
+            service.delete(service.getBySubject(SUBJECT).id());
+        } catch (IllegalArgumentException ignored) {
+            // nothing was created
+        }
+    }
+
+    @Test
+    @DisplayName("Should never serve a stale account once an upsert has returned")
+    void shouldNeverServeStaleAccountAfterUpsert() throws Exception {
+        // Given
+        service.upsert(request(0));
+        AtomicInteger committed = new AtomicInteger();
+        AtomicBoolean done = new AtomicBoolean();
+        List<String> violations = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        for (int r = 0; r < READERS; r++) {
+            readers.submit(() -> {
+                while (!done.get()) {
+                    int floor = committed.get();
+                    int seen = version(service.getBySubject(SUBJECT));
+                    if (seen < floor) {
+                        violations.add("read version " + seen + " after version " + floor + " was committed");
+                    }
+                }
+            });
+        }
+
+        // When
+        try {
+            for (int i = 1; i <= WRITES; i++) {
+                service.upsert(request(i));
+                committed.set(i);
+                assertThat(version(service.getBySubject(SUBJECT))).isEqualTo(i);
+            }
+        } finally {
+            done.set(true);
+            readers.shutdown();
+        }
+
+        // Then
+        assertThat(readers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(violations).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should expose hit and miss metrics")
+    void shouldExposeHitAndMissMetrics() {
+        // Given
+        service.upsert(request(0));
+        double hitsBefore = gets("hit");
+        double missesBefore = gets("miss");
+
+        // When
+        service.getBySubject(SUBJECT);
+        service.getBySubject(SUBJECT);
+
+        // Then
+        assertThat(gets("miss") - missesBefore).isEqualTo(1);
+        assertThat(gets("hit") - hitsBefore).isEqualTo(1);
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", "users.by-subject").functionCounter())
+                .isNotNull();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", "users.by-subject")
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private static UserAccountRequest request(int version) {
+        return new UserAccountRequest(SUBJECT, "cacheuser-" + version, "cache@example.com", Set.of("ROLE_USER"));
+    }
+
+    private static int version(UserAccountResponse response) {
+        return Integer.parseInt(response.username().substring("cacheuser-".length()));
+    }
+}
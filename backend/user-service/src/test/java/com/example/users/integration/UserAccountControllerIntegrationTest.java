@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -36,6 +37,9 @@ class UserAccountControllerIntegrationTest {
     @Autowired
     private UserAccountRepository repository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
 
     private Jwt userJwt;
     private Jwt adminJwt;
@@ -73,7 +77,7 @@ class UserAccountControllerIntegrationTest {
     @DisplayName("Should get current user profile with valid JWT")
     void shouldGetCurrentUserProfileWithValidJwt() throws Exception {
         mockMvc.perform(get("/users/me")
-                        .with(jwt().jwt(userJwt)))
+                        .with(jwt().jwt(userJwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.subject").value("user-subject"))
                 .andExpect(jsonPath("$.username").value("testuser"))
@@ -101,7 +105,7 @@ class UserAccountControllerIntegrationTest {
                 """;
 
         mockMvc.perform(post("/users")
-                        .with(jwt().jwt(adminJwt))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestBody))
                 .andExpect(status().isCreated())
@@ -123,7 +127,7 @@ class UserAccountControllerIntegrationTest {
                 """;
 
         mockMvc.perform(post("/users")
-                        .with(jwt().jwt(userJwt))
+                        .with(jwt().jwt(userJwt).authorities(new SimpleGrantedAuthority("ROLE_USER")))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(requestBody))
                 .andExpect(status().isForbidden());
@@ -141,10 +145,45 @@ class UserAccountControllerIntegrationTest {
                 .build());
 
         mockMvc.perform(get("/users")
-                        .with(jwt().jwt(adminJwt)))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("Should walk all users page by page with continuation cursors")
+    void shouldWalkAllUsersPageByPage() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            repository.save(UserAccount.builder()
+                    .subject("page-subject-" + i)
+                    .username("pageuser" + i)
+                    .email("page" + i + "@example.com")
+                    .roles(Set.of("ROLE_USER"))
+                    .build());
+        }
+
+        Set<String> seen = new java.util.HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/users").param("size", "2")
+                    .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")));
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.items.length()").value(org.hamcrest.Matchers.lessThanOrEqualTo(2)))
+                    .andReturn().getResponse().getContentAsString();
+            var page = objectMapper.readTree(body);
+            page.get("items").forEach(item -> seen.add(item.get("subject").asText()));
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(5);
+        assertThat(pages).isEqualTo(3);
     }
 
     @Test
@@ -158,7 +197,7 @@ class UserAccountControllerIntegrationTest {
                 .build());
 
         mockMvc.perform(delete("/users/" + toDelete.getId())
-                        .with(jwt().jwt(adminJwt)))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
                 .andExpect(status().isNoContent());
 
         // Verify deletion
@@ -1,10 +1,13 @@
 package com.example.users.integration;
 
+import com.example.users.config.CacheConfig;
 import com.example.users.domain.UserAccount;
 import com.example.users.dto.UserAccountRequest;
 import com.example.users.dto.UserAccountResponse;
 import com.example.users.repository.UserAccountRepository;
 import com.example.users.service.UserAccountService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,15 +16,21 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
-@Import(UserAccountService.class)
+@Import({UserAccountService.class, CacheConfig.class})
 @ActiveProfiles("test")
 @DisplayName("UserAccount Integration Tests")
 class UserAccountIntegrationTest {
@@ -100,6 +109,29 @@ class UserAccountIntegrationTest {
         assertThat(found.id()).isEqualTo(updated.id()); // Same ID
     }
 
+    @Test
+    @DisplayName("Should bump the version on update and reject a write from a stale copy")
+    void shouldRejectStaleWrite() {
+        // Given
+        UserAccountResponse created = service.upsert(
+                new UserAccountRequest("test-subject", "olduser", "old@example.com", Set.of("ROLE_USER")));
+        entityManager.clear();
+        UserAccount stale = repository.findBySubject("test-subject").orElseThrow();
+        entityManager.detach(stale);
+
+        // When
+        UserAccountResponse updated = service.upsert(
+                new UserAccountRequest("test-subject", "newuser", "old@example.com", Set.of("ROLE_ADMIN")));
+        entityManager.clear();
+
+        // Then
+        assertThat(created.version()).isZero();
+        assertThat(updated.version()).isEqualTo(1L);
+        stale.setUsername("lostupdate");
+        assertThatThrownBy(() -> repository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+    }
+
     @Test
     @DisplayName("Should handle element collection for roles")
     void shouldHandleElementCollectionForRoles() {
@@ -147,8 +179,8 @@ class UserAccountIntegrationTest {
     }
 
     @Test
-    @DisplayName("Should find all users")
-    void shouldFindAllUsers() {
+    @DisplayName("Should stream all users in id order")
+    void shouldStreamAllUsersInIdOrder() {
         // Given
         service.upsert(new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER")));
         service.upsert(new UserAccountRequest("subject-2", "user2", "user2@example.com", Set.of("ROLE_ADMIN")));
@@ -157,10 +189,127 @@ class UserAccountIntegrationTest {
         entityManager.clear();
 
         // When
-        var all = service.findAll();
+        List<UserAccountResponse> streamed = new ArrayList<>();
+        service.streamAll(streamed::add);
 
         // Then
-        assertThat(all).hasSize(3);
+        assertThat(streamed).extracting(UserAccountResponse::subject)
+                .containsExactly("subject-1", "subject-2", "subject-3");
+        assertThat(streamed.get(1).roles()).containsExactly("ROLE_ADMIN");
     }
-}
 
+    @Test
+    @DisplayName("Should page users by id keyset")
+    void shouldPageUsersByIdKeyset() {
+        // Given
+        service.upsert(new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER")));
+        service.upsert(new UserAccountRequest("subject-2", "user2", "user2@example.com", Set.of("ROLE_USER")));
+        service.upsert(new UserAccountRequest("subject-3", "user3", "user3@example.com", Set.of("ROLE_USER")));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        Slice<UserAccountResponse> first = service.findPage(0L, 2);
+        Slice<UserAccountResponse> second = service.findPage(first.getContent().get(1).id(), 2);
+
+        // Then
+        assertThat(first.getContent()).extracting(UserAccountResponse::subject)
+                .containsExactly("subject-1", "subject-2");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting(UserAccountResponse::subject)
+                .containsExactly("subject-3");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should load a 1,000-user listing with a constant number of statements")
+    void shouldLoadLargeListingWithConstantStatementCount() {
+        // Given
+        List<UserAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            accounts.add(UserAccount.builder()
+                    .subject("bulk-subject-" + i)
+                    .username("bulkuser" + i)
+                    .email("bulk" + i + "@example.com")
+                    .roles(new HashSet<>(Set.of("ROLE_USER", "ROLE_BULK")))
+                    .build());
+        }
+        repository.saveAll(accounts);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        try {
+            // When / Then: a full keyset page is one page query plus one batched roles query
+            statistics.clear();
+            assertThat(service.findPage(0L, UserAccountService.MAX_PAGE_SIZE).getContent())
+                    .hasSize(UserAccountService.MAX_PAGE_SIZE)
+                    .allSatisfy(user -> assertThat(user.roles()).hasSize(2));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+            entityManager.clear();
+
+            // When / Then: streaming fetch-joins roles through a single cursor
+            statistics.clear();
+            List<UserAccountResponse> streamed = new ArrayList<>();
+            service.streamAll(streamed::add);
+            assertThat(streamed).hasSize(1_000)
+                    .allSatisfy(user -> assertThat(user.roles()).hasSize(2));
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            entityManager.clear();
+
+            // When / Then: single account lookup
+            statistics.clear();
+            assertThat(service.getBySubject("bulk-subject-7").roles()).hasSize(2);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    @Test
+    @DisplayName("Should bulk upsert new and existing users with batched statements")
+    void shouldBulkUpsertWithBatchedStatements() {
+        // Given
+        service.upsert(new UserAccountRequest("subject-0", "user0", "user0@example.com", Set.of("ROLE_USER", "ROLE_OLD")));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<UserAccountRequest> requests = new ArrayList<>();
+        requests.add(new UserAccountRequest("subject-0", "renamed0", "user0@example.com", Set.of("ROLE_USER", "ROLE_NEW")));
+        for (int i = 1; i <= 200; i++) {
+            requests.add(new UserAccountRequest("subject-" + i, "user" + i, "user" + i + "@example.com",
+                    Set.of("ROLE_USER", "ROLE_BULK")));
+        }
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // When
+        List<UserAccountResponse> responses;
+        try {
+            responses = service.upsertAll(requests);
+            entityManager.flush();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Then: one IN lookup, a handful of pooled sequence calls and batched inserts instead of ~600 statements
+        assertThat(responses).hasSize(201).allSatisfy(response -> assertThat(response.id()).isNotNull());
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(200);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(25);
+        entityManager.clear();
+
+        UserAccountResponse updated = service.getBySubject("subject-0");
+        assertThat(updated.username()).isEqualTo("renamed0");
+        assertThat(updated.roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_NEW");
+        assertThat(service.getBySubject("subject-200").roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_BULK");
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.users.integration;
+
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.service.UserAccountService;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the account read and write paths on virtual threads against PostgreSQL and fails on any
+ * {@code jdk.VirtualThreadPinned} event, i.e. a virtual thread blocking while holding a monitor and with it
+ * its carrier thread.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+@DisplayName("Virtual Thread Pinning Tests")
+class VirtualThreadPinningTest {
+
+    private static final int CLIENTS = 200;
+    private static final int SUBJECTS = 50;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private UserAccountService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_account_roles");
+        jdbcTemplate.update("DELETE FROM user_accounts");
+    }
+
+    @Test
+    @DisplayName("Should not pin carrier threads on the JDBC path")
+    void shouldNotPinCarrierThreadsOnJdbcPath() throws Exception {
+        // Given: class loading and pool start-up done, as they may pin once
+        exercise(SUBJECTS);
+        Path dump = Files.createTempFile("virtual-thread-pinning", ".jfr");
+
+        // When
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            exercise(CLIENTS);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        // Then
+        List<RecordedEvent> pinned;
+        try {
+            pinned = RecordingFile.readAllEvents(dump);
+        } finally {
+            Files.delete(dump);
+        }
+        assertThat(pinned).extracting(VirtualThreadPinningTest::describe).isEmpty();
+    }
+
+    /**
+     * Every client logs in (upsert), reads its account twice and the first page; subjects repeat, so loads of
+     * one cache entry race each other and the writes invalidating it.
+     */
+    private void exercise(int clients) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> logins = IntStream.range(0, clients)
+                    .mapToObj(i -> executor.submit(() -> {
+                        String subject = "pinning-subject-" + (i % SUBJECTS);
+                        service.upsert(new UserAccountRequest(subject, subject, subject + "@example.com",
+                                Set.of("ROLE_USER")));
+                        service.getBySubject(subject);
+                        service.getBySubject(subject);
+                        service.findPage(0L, 50);
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<?> login : logins) {
+                login.get();
+            }
+        }
+    }
+
+    private static String describe(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        return frames.stream()
+                .limit(12)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                .collect(Collectors.joining("\n  <- ", "pinned for " + event.getDuration() + ":\n  ", ""));
+    }
+}
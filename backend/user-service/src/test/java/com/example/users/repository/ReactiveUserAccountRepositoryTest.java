@@ -0,0 +1,100 @@
+package com.example.users.repository;
+
+import com.example.users.domain.UserAccount;
+import com.example.users.dto.UserAccountResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads through R2DBC what the JPA write path committed, on the same in-memory database.
+ */
+@SpringBootTest(properties = "users.reactive-reads.enabled=true")
+@ActiveProfiles("test")
+@DisplayName("ReactiveUserAccountRepository Tests")
+class ReactiveUserAccountRepositoryTest {
+
+    @Autowired
+    private UserAccountRepository repository;
+
+    @Autowired
+    private ReactiveUserAccountRepository reactiveRepository;
+
+    private List<UserAccount> accounts;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        accounts = repository.saveAll(IntStream.range(0, 5)
+                .mapToObj(i -> UserAccount.builder()
+                        .subject("reactive-subject-" + i)
+                        .username("reactive" + i)
+                        .email("reactive" + i + "@example.com")
+                        // every other account has two roles, one has none
+                        .roles(i == 4 ? Set.of() : i % 2 == 0 ? Set.of("ROLE_USER", "ROLE_ADMIN") : Set.of("ROLE_USER"))
+                        .build())
+                .toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should fold the role rows of an account into one response")
+    void shouldFindBySubjectWithAllRoles() {
+        // When
+        UserAccountResponse found = reactiveRepository.findBySubject("reactive-subject-0").block();
+
+        // Then
+        assertThat(found).isNotNull();
+        assertThat(found.id()).isEqualTo(accounts.get(0).getId());
+        assertThat(found.username()).isEqualTo("reactive0");
+        assertThat(found.roles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+        assertThat(found.createdAt()).isNotNull();
+        assertThat(found.version()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should find an account without roles and nothing for an unknown subject")
+    void shouldFindAccountWithoutRoles() {
+        // When / Then
+        assertThat(reactiveRepository.findBySubject("reactive-subject-4").block().roles()).isEmpty();
+        assertThat(reactiveRepository.findBySubject("unknown-subject").blockOptional()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should limit a keyset page by accounts, not by role rows")
+    void shouldPageByAccounts() {
+        // When
+        List<UserAccountResponse> page = reactiveRepository.findPage(accounts.get(0).getId(), 3)
+                .collectList().block();
+
+        // Then
+        assertThat(page).extracting(UserAccountResponse::subject)
+                .containsExactly("reactive-subject-1", "reactive-subject-2", "reactive-subject-3");
+        assertThat(page.get(1).roles()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Should stream every account in id order")
+    void shouldStreamAllInIdOrder() {
+        // When
+        List<UserAccountResponse> all = reactiveRepository.streamAll().collectList().block();
+
+        // Then
+        assertThat(all).extracting(UserAccountResponse::id)
+                .containsExactlyElementsOf(accounts.stream().map(UserAccount::getId).toList());
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.users.repository;
+
+import com.example.users.config.CacheConfig;
+import com.example.users.dto.UserAccountRequest;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.UserAccountService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UserAccountService.class, CacheConfig.class, PostgresUserAccountUpsertRepository.class})
+@ActiveProfiles("test")
+@DisplayName("UserAccount Native Upsert Tests")
+class UserAccountUpsertRepositoryTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserAccountRepository repository;
+
+    @Autowired
+    private UserAccountService service;
+
+    @Autowired
+    private UserAccountUpsertRepository nativeUpserts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM user_account_roles");
+        jdbcTemplate.update("DELETE FROM user_accounts");
+    }
+
+    @Test
+    @DisplayName("Should insert a new account with its roles")
+    void shouldInsertNewAccount() {
+        // When
+        UserAccountResponse response = service.upsert(
+                new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER", "ROLE_ADMIN")));
+
+        // Then
+        assertThat(nativeUpserts).isInstanceOf(PostgresUserAccountUpsertRepository.class);
+        assertThat(response.id()).isNotNull();
+        assertThat(response.createdAt()).isNotNull();
+        assertThat(roles(response.id())).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    @Test
+    @DisplayName("Should update an existing account in place and reconcile roles")
+    void shouldUpdateExistingAccountAndReconcileRoles() {
+        // Given
+        UserAccountResponse created = service.upsert(
+                new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER", "ROLE_OLD")));
+
+        // When
+        UserAccountResponse updated = service.upsert(
+                new UserAccountRequest("subject-1", "renamed", "renamed@example.com", Set.of("ROLE_USER", "ROLE_NEW")));
+        entityManager.clear();
+
+        // Then
+        assertThat(updated.id()).isEqualTo(created.id());
+        assertThat(updated.createdAt()).isEqualTo(created.createdAt());
+        assertThat(created.version()).isZero();
+        assertThat(updated.version()).isEqualTo(1L);
+        assertThat(repository.findBySubject("subject-1")).hasValueSatisfying(account -> {
+            assertThat(account.getUsername()).isEqualTo("renamed");
+            assertThat(account.getEmail()).isEqualTo("renamed@example.com");
+            assertThat(account.getRoles()).containsExactlyInAnyOrder("ROLE_USER", "ROLE_NEW");
+        });
+    }
+
+    @Test
+    @DisplayName("Should not draw an id from the sequence when updating an existing account")
+    void shouldNotDrawIdOnUpdate() {
+        // Given
+        service.upsert(new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER")));
+        long sequenceBefore = sequenceValue();
+
+        // When
+        service.upsert(new UserAccountRequest("subject-1", "renamed", "user1@example.com", Set.of("ROLE_USER")));
+
+        // Then
+        assertThat(sequenceValue()).isEqualTo(sequenceBefore);
+    }
+
+    @Test
+    @DisplayName("Should clear all roles when none are requested")
+    void shouldClearRolesWhenNoneRequested() {
+        // Given
+        UserAccountResponse created = service.upsert(
+                new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER")));
+
+        // When
+        service.upsert(new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of()));
+
+        // Then
+        assertThat(roles(created.id())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should write an upsert without the entity round trips")
+    void shouldUpsertWithoutEntityRoundTrips() {
+        // Given
+        service.upsert(new UserAccountRequest("subject-1", "user1", "user1@example.com", Set.of("ROLE_USER", "ROLE_OLD")));
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        // When
+        try {
+            service.upsert(new UserAccountRequest("subject-1", "renamed", "user1@example.com", Set.of("ROLE_USER", "ROLE_NEW")));
+            entityManager.flush();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // Then: nothing went through Hibernate; the entity path needs a select, an update and role row writes
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(roles(repository.findBySubject("subject-1").orElseThrow().getId()))
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_NEW");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Should let concurrent first logins for one subject all succeed")
+    void shouldHandleConcurrentFirstLogins() {
+        // Given
+        int logins = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+
+        // When
+        List<UserAccountResponse> responses;
+        try {
+            List<CompletableFuture<UserAccountResponse>> futures = IntStream.range(0, logins)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        await(start);
+                        return service.upsert(new UserAccountRequest(
+                                "subject-1", "user1", "user1@example.com", Set.of("ROLE_USER", "ROLE_ADMIN")));
+                    }, executor))
+                    .toList();
+            start.countDown();
+            responses = futures.stream().map(CompletableFuture::join).toList();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat(responses).extracting(UserAccountResponse::id).containsOnly(responses.get(0).id());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM user_accounts", Long.class)).isOne();
+        assertThat(roles(responses.get(0).id())).containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+    }
+
+    private long sequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT last_value FROM user_accounts_seq", Long.class);
+    }
+
+    private List<String> roles(Long accountId) {
+        return jdbcTemplate.queryForList(
+                "SELECT role FROM user_account_roles WHERE user_account_id = ?", String.class, accountId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package com.example.users.service;
 
+import com.example.users.cache.UserAccountCache;
 import com.example.users.domain.UserAccount;
 import com.example.users.dto.UserAccountRequest;
 import com.example.users.dto.UserAccountResponse;
 import com.example.users.repository.UserAccountRepository;
+import com.example.users.repository.UserAccountUpsertRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Slice;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
 import java.time.Instant;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -29,6 +41,18 @@ class UserAccountServiceTest {
     @Mock
     private UserAccountRepository repository;
 
+    @Mock
+    private ObjectProvider<UserAccountUpsertRepository> nativeUpserts;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private UserAccountCache cache = new UserAccountCache(100, Duration.ofMinutes(1));
+
+    @Spy
+    private TransactionOperations transactions = TransactionOperations.withoutTransaction();
+
     @InjectMocks
     private UserAccountService service;
 
@@ -55,28 +79,21 @@ class UserAccountServiceTest {
     }
 
     @Test
-    @DisplayName("Should find all users")
-    void shouldFindAllUsers() {
+    @DisplayName("Should cap page size and detect a following page")
+    void shouldCapPageSizeAndDetectFollowingPage() {
         // Given
-        UserAccount user2 = UserAccount.builder()
-                .id(2L)
-                .subject("subject-2")
-                .username("user2")
-                .email("user2@example.com")
-                .roles(Set.of("ROLE_ADMIN"))
-                .createdAt(Instant.now())
-                .build();
-
-        when(repository.findAll()).thenReturn(List.of(testUser, user2));
+        List<UserAccount> overFetched = java.util.stream.LongStream.rangeClosed(1, UserAccountService.MAX_PAGE_SIZE + 1)
+                .mapToObj(id -> UserAccount.builder().id(id).subject("s" + id).roles(Set.of()).build())
+                .toList();
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(UserAccountService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(overFetched);
 
         // When
-        List<UserAccountResponse> result = service.findAll();
+        Slice<UserAccountResponse> page = service.findPage(0L, 10_000);
 
         // Then
-        assertThat(result).hasSize(2);
-        assertThat(result.get(0).subject()).isEqualTo("test-subject");
-        assertThat(result.get(1).subject()).isEqualTo("subject-2");
-        verify(repository, times(1)).findAll();
+        assertThat(page.getContent()).hasSize(UserAccountService.MAX_PAGE_SIZE);
+        assertThat(page.hasNext()).isTrue();
     }
 
     @Test
@@ -115,7 +132,7 @@ class UserAccountServiceTest {
     void shouldCreateNewUserWhenUpsertingNonExistentUser() {
         // Given
         when(repository.findBySubject("test-subject")).thenReturn(Optional.empty());
-        when(repository.save(any(UserAccount.class))).thenReturn(testUser);
+        when(repository.saveAndFlush(any(UserAccount.class))).thenReturn(testUser);
 
         // When
         UserAccountResponse result = service.upsert(testRequest);
@@ -124,7 +141,7 @@ class UserAccountServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.subject()).isEqualTo("test-subject");
         verify(repository, times(1)).findBySubject("test-subject");
-        verify(repository, times(1)).save(any(UserAccount.class));
+        verify(repository, times(1)).saveAndFlush(any(UserAccount.class));
     }
 
     @Test
@@ -139,7 +156,7 @@ class UserAccountServiceTest {
         );
 
         when(repository.findBySubject("test-subject")).thenReturn(Optional.of(testUser));
-        when(repository.save(any(UserAccount.class))).thenAnswer(invocation -> {
+        when(repository.saveAndFlush(any(UserAccount.class))).thenAnswer(invocation -> {
             UserAccount saved = invocation.getArgument(0);
             assertThat(saved.getUsername()).isEqualTo("updateduser");
             assertThat(saved.getEmail()).isEqualTo("updated@example.com");
@@ -155,20 +172,123 @@ class UserAccountServiceTest {
         assertThat(result.username()).isEqualTo("updateduser");
         assertThat(result.email()).isEqualTo("updated@example.com");
         verify(repository, times(1)).findBySubject("test-subject");
-        verify(repository, times(1)).save(any(UserAccount.class));
+        verify(repository, times(1)).saveAndFlush(any(UserAccount.class));
+    }
+
+    @Test
+    @DisplayName("Should retry an upsert that lost a version race with fresh reads")
+    void shouldRetryUpsertOnVersionConflict() {
+        // Given
+        when(repository.findBySubject("test-subject")).thenReturn(Optional.of(testUser));
+        when(repository.saveAndFlush(any(UserAccount.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(UserAccount.class, 1L))
+                .thenReturn(testUser);
+
+        // When
+        UserAccountResponse result = service.upsert(testRequest);
+
+        // Then
+        assertThat(result.subject()).isEqualTo("test-subject");
+        verify(transactions, times(2)).execute(any());
+        verify(repository, times(2)).findBySubject("test-subject");
+        verify(eventPublisher, times(1)).publishEvent(new UserAccountChangedEvent("test-subject"));
+    }
+
+    @Test
+    @DisplayName("Should give up on a version conflict after bounded attempts")
+    void shouldGiveUpAfterBoundedAttempts() {
+        // Given
+        when(repository.findBySubject("test-subject")).thenReturn(Optional.of(testUser));
+        when(repository.saveAndFlush(any(UserAccount.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(UserAccount.class, 1L));
+
+        // When/Then
+        assertThatThrownBy(() -> service.upsert(testRequest))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(repository, times(UserAccountService.MAX_WRITE_ATTEMPTS)).saveAndFlush(any(UserAccount.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should publish a single change event naming every subject of a batch")
+    void shouldPublishSingleEventPerBatch() {
+        // Given
+        List<UserAccountRequest> requests = List.of(
+                testRequest,
+                new UserAccountRequest("subject-2", "user2", "user2@example.com", Set.of("ROLE_USER")),
+                new UserAccountRequest("subject-3", "user3", "user3@example.com", Set.of("ROLE_USER")));
+        UserAccount existing = UserAccount.builder()
+                .id(1L)
+                .subject("test-subject")
+                .roles(new HashSet<>(Set.of("ROLE_USER")))
+                .build();
+        when(repository.findAllBySubjectIn(any())).thenReturn(List.of(existing));
+        when(repository.saveAllAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        service.upsertAll(requests);
+
+        // Then
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+        verify(eventPublisher).publishEvent(
+                new UserAccountChangedEvent(List.of("test-subject", "subject-2", "subject-3")));
     }
 
     @Test
     @DisplayName("Should delete user by id")
     void shouldDeleteUserById() {
         // Given
-        doNothing().when(repository).deleteById(1L);
+        when(repository.findById(1L)).thenReturn(Optional.of(testUser));
 
         // When
         service.delete(1L);
 
         // Then
-        verify(repository, times(1)).deleteById(1L);
+        verify(repository, times(1)).delete(testUser);
+        verify(eventPublisher).publishEvent(new UserAccountChangedEvent("test-subject"));
+    }
+
+    @Test
+    @DisplayName("Should ignore delete of unknown id")
+    void shouldIgnoreDeleteOfUnknownId() {
+        // Given
+        when(repository.findById(42L)).thenReturn(Optional.empty());
+
+        // When
+        service.delete(42L);
+
+        // Then
+        verify(repository, never()).delete(any(UserAccount.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Should serve repeated lookups from the cache")
+    void shouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(repository.findBySubject("test-subject")).thenReturn(Optional.of(testUser));
+
+        // When
+        service.getBySubject("test-subject");
+        UserAccountResponse second = service.getBySubject("test-subject");
+
+        // Then
+        assertThat(second.subject()).isEqualTo("test-subject");
+        verify(repository, times(1)).findBySubject("test-subject");
+    }
+
+    @Test
+    @DisplayName("Should publish change event on upsert")
+    void shouldPublishChangeEventOnUpsert() {
+        // Given
+        when(repository.findBySubject("test-subject")).thenReturn(Optional.of(testUser));
+        when(repository.saveAndFlush(any(UserAccount.class))).thenReturn(testUser);
+
+        // When
+        service.upsert(testRequest);
+
+        // Then
+        verify(eventPublisher).publishEvent(new UserAccountChangedEvent("test-subject"));
     }
 
     @Test
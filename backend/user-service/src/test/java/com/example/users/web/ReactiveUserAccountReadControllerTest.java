@@ -0,0 +1,197 @@
+package com.example.users.web;
+
+import com.example.users.config.SecurityConfig;
+import com.example.users.dto.UserAccountResponse;
+import com.example.users.service.ReactiveUserAccountService;
+import com.example.users.service.UserAccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = {UserAccountController.class, UserAccountReadController.class,
+        ReactiveUserAccountReadController.class}, properties = "users.reactive-reads.enabled=true")
+@Import(SecurityConfig.class)
+@DisplayName("ReactiveUserAccountReadController Unit Tests")
+class ReactiveUserAccountReadControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReactiveUserAccountService reactiveService;
+
+    @MockBean
+    private UserAccountService service;
+
+    private Jwt jwt;
+    private UserAccountResponse testResponse;
+
+    @BeforeEach
+    void setUp() {
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "test-subject")
+                .build();
+
+        testResponse = new UserAccountResponse(1L, "test-subject", "testuser", "test@example.com",
+                Set.of("ROLE_USER"), Instant.now(), 0L);
+    }
+
+    @Test
+    @DisplayName("Should get current user profile without the blocking service")
+    void shouldGetCurrentUserProfile() throws Exception {
+        // Given
+        when(reactiveService.getBySubject("test-subject")).thenReturn(Mono.just(testResponse));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users/me")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
+                .andExpect(jsonPath("$.subject").value("test-subject"));
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for a matching profile ETag")
+    void shouldReturnNotModifiedForMatchingProfileETag() throws Exception {
+        // Given
+        when(reactiveService.getBySubject("test-subject")).thenReturn(Mono.just(testResponse));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users/me")
+                        .header("If-None-Match", "\"1-0\"")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should return a page with a continuation cursor")
+    void shouldReturnContinuationCursor() throws Exception {
+        // Given
+        when(reactiveService.listingVersion()).thenReturn("v1");
+        when(reactiveService.findPage(0L, 1))
+                .thenReturn(Mono.just(new SliceImpl<>(List.of(testResponse), Pageable.ofSize(1), true)));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users")
+                        .param("size", "1")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"users-v1\""))
+                .andExpect(jsonPath("$.items[0].subject").value("test-subject"))
+                .andExpect(jsonPath("$.nextCursor").value(CursorCodec.encode(1L)));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged listing without querying accounts")
+    void shouldReturnNotModifiedForUnchangedListing() throws Exception {
+        // Given
+        when(reactiveService.listingVersion()).thenReturn("v1");
+
+        // When/Then
+        mockMvc.perform(get("/users")
+                        .header("If-None-Match", "\"users-v1\"")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isNotModified());
+
+        verify(reactiveService, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should answer a listing in full and without an ETag while its version is unknown")
+    void shouldOmitListingETagWhileVersionUnknown() throws Exception {
+        // Given
+        when(reactiveService.listingVersion()).thenReturn(null);
+        when(reactiveService.findPage(0L, 50))
+                .thenReturn(Mono.just(new SliceImpl<>(List.of(testResponse), Pageable.ofSize(50), false)));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users")
+                        .header("If-None-Match", "\"users-null\"")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.items[0].subject").value("test-subject"));
+    }
+
+    @Test
+    @DisplayName("Should stream all users as NDJSON")
+    void shouldStreamAllUsersAsNdjson() throws Exception {
+        // Given
+        when(reactiveService.listingVersion()).thenReturn("v1");
+        when(reactiveService.streamAll()).thenReturn(Flux.just(testResponse, testResponse));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(2)
+                .allSatisfy(line -> assertThat(line).contains("\"subject\":\"test-subject\""));
+    }
+
+    @Test
+    @DisplayName("Should return 403 for non-admin listing all users")
+    void shouldReturn403ForNonAdminListingAllUsers() throws Exception {
+        // When/Then
+        mockMvc.perform(get("/users")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(reactiveService);
+    }
+}
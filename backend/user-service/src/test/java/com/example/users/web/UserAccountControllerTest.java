@@ -1,5 +1,8 @@
 package com.example.users.web;
 
+import com.example.users.config.SecurityConfig;
+import com.example.users.domain.UserAccount;
+import com.example.users.dto.UserAccountBatchRequest;
 import com.example.users.dto.UserAccountRequest;
 import com.example.users.dto.UserAccountResponse;
 import com.example.users.service.UserAccountService;
@@ -10,22 +13,33 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(UserAccountController.class)
+@WebMvcTest({UserAccountController.class, UserAccountReadController.class})
+@Import(SecurityConfig.class)
 @DisplayName("UserAccountController Unit Tests")
 class UserAccountControllerTest {
 
@@ -55,7 +69,8 @@ class UserAccountControllerTest {
                 "testuser",
                 "test@example.com",
                 Set.of("ROLE_USER"),
-                Instant.now()
+                Instant.now(),
+                0L
         );
     }
 
@@ -67,7 +82,7 @@ class UserAccountControllerTest {
 
         // When/Then
         mockMvc.perform(get("/users/me")
-                        .with(jwt().jwt(jwt)))
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.subject").value("test-subject"))
                 .andExpect(jsonPath("$.username").value("testuser"))
@@ -76,6 +91,60 @@ class UserAccountControllerTest {
         verify(service, times(1)).getBySubject("test-subject");
     }
 
+    @Test
+    @DisplayName("Should tag current user profile with its version and answer 304 when unchanged")
+    void shouldReturnNotModifiedForMatchingProfileETag() throws Exception {
+        // Given
+        when(service.getBySubject("test-subject")).thenReturn(testResponse);
+
+        // When
+        String etag = mockMvc.perform(get("/users/me")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Then
+        mockMvc.perform(get("/users/me")
+                        .header("If-None-Match", etag)
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("Should answer 304 for an unchanged listing without querying accounts")
+    void shouldReturnNotModifiedForUnchangedListing() throws Exception {
+        // Given
+        when(service.listingVersion()).thenReturn("v1");
+
+        // When/Then
+        mockMvc.perform(get("/users")
+                        .header("If-None-Match", "\"users-v1\"")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"users-v1\""));
+
+        verify(service, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should answer a listing in full and without an ETag while its version is unknown")
+    void shouldOmitListingETagWhileVersionUnknown() throws Exception {
+        // Given
+        when(service.listingVersion()).thenReturn(null);
+        when(service.findPage(0L, 50))
+                .thenReturn(new SliceImpl<>(List.of(testResponse), Pageable.ofSize(50), false));
+
+        // When/Then
+        mockMvc.perform(get("/users")
+                        .header("If-None-Match", "\"users-null\"")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.items[0].subject").value("test-subject"));
+    }
+
     @Test
     @DisplayName("Should return 401 when not authenticated")
     void shouldReturn401WhenNotAuthenticated() throws Exception {
@@ -87,7 +156,7 @@ class UserAccountControllerTest {
     }
 
     @Test
-    @DisplayName("Should get all users for admin")
+    @DisplayName("Should get first page of users for admin")
     void shouldGetAllUsersForAdmin() throws Exception {
         // Given
         Jwt adminJwt = Jwt.withTokenValue("token")
@@ -96,16 +165,96 @@ class UserAccountControllerTest {
                 .claim("realm_access", java.util.Map.of("roles", List.of("ROLE_ADMIN")))
                 .build();
 
-        when(service.findAll()).thenReturn(List.of(testResponse));
+        when(service.findPage(0L, 50))
+                .thenReturn(new SliceImpl<>(List.of(testResponse), Pageable.ofSize(50), false));
 
         // When/Then
         mockMvc.perform(get("/users")
-                        .with(jwt().jwt(adminJwt)))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].subject").value("test-subject"));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items[0].subject").value("test-subject"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(service, times(1)).findPage(0L, 50);
+    }
+
+    @Test
+    @DisplayName("Should return continuation cursor that resumes after the last id")
+    void shouldReturnContinuationCursor() throws Exception {
+        // Given
+        Jwt adminJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "admin-subject")
+                .build();
+
+        when(service.findPage(0L, 1))
+                .thenReturn(new SliceImpl<>(List.of(testResponse), Pageable.ofSize(1), true));
+        when(service.findPage(1L, 1))
+                .thenReturn(new SliceImpl<>(List.of(), Pageable.ofSize(1), false));
+
+        // When
+        String body = mockMvc.perform(get("/users").param("size", "1")
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(body).get("nextCursor").asText();
+
+        // Then
+        mockMvc.perform(get("/users").param("size", "1").param("cursor", cursor)
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty());
+
+        verify(service, times(1)).findPage(1L, 1);
+    }
+
+    @Test
+    @DisplayName("Should return 400 for malformed cursor")
+    void shouldReturn400ForMalformedCursor() throws Exception {
+        Jwt adminJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "admin-subject")
+                .build();
+
+        mockMvc.perform(get("/users").param("cursor", "not-a-cursor")
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).findPage(anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("Should stream all users as NDJSON")
+    void shouldStreamAllUsersAsNdjson() throws Exception {
+        // Given
+        Jwt adminJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "admin-subject")
+                .build();
 
-        verify(service, times(1)).findAll();
+        doAnswer(invocation -> {
+            Consumer<UserAccountResponse> sink = invocation.getArgument(0);
+            sink.accept(testResponse);
+            sink.accept(testResponse);
+            return null;
+        }).when(service).streamAll(any());
+
+        // When
+        MvcResult result = mockMvc.perform(get("/users")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(2)
+                .allSatisfy(line -> assertThat(line).contains("\"subject\":\"test-subject\""));
     }
 
     @Test
@@ -113,10 +262,10 @@ class UserAccountControllerTest {
     void shouldReturn403ForNonAdminAccessingAllUsers() throws Exception {
         // When/Then
         mockMvc.perform(get("/users")
-                        .with(jwt().jwt(jwt)))
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER"))))
                 .andExpect(status().isForbidden());
 
-        verify(service, never()).findAll();
+        verify(service, never()).findPage(anyLong(), anyInt());
     }
 
     @Test
@@ -142,14 +291,15 @@ class UserAccountControllerTest {
                 "newuser",
                 "new@example.com",
                 Set.of("ROLE_USER"),
-                Instant.now()
+                Instant.now(),
+                0L
         );
 
         when(service.upsert(any(UserAccountRequest.class))).thenReturn(response);
 
         // When/Then
         mockMvc.perform(post("/users")
-                        .with(jwt().jwt(adminJwt))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isCreated())
@@ -159,6 +309,27 @@ class UserAccountControllerTest {
         verify(service, times(1)).upsert(any(UserAccountRequest.class));
     }
 
+    @Test
+    @DisplayName("Should return 409 when an upsert keeps conflicting with concurrent writes")
+    void shouldReturn409OnVersionConflict() throws Exception {
+        // Given
+        Jwt adminJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "admin-subject")
+                .build();
+        when(service.upsert(any(UserAccountRequest.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(UserAccount.class, 1L));
+
+        // When/Then
+        mockMvc.perform(post("/users")
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserAccountRequest(
+                                "test-subject", "testuser", "test@example.com", Set.of("ROLE_USER")))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
     @Test
     @DisplayName("Should return 400 for invalid request")
     void shouldReturn400ForInvalidRequest() throws Exception {
@@ -178,7 +349,7 @@ class UserAccountControllerTest {
 
         // When/Then
         mockMvc.perform(post("/users")
-                        .with(jwt().jwt(adminJwt))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(invalidRequest)))
                 .andExpect(status().isBadRequest());
@@ -186,6 +357,63 @@ class UserAccountControllerTest {
         verify(service, never()).upsert(any());
     }
 
+    @Test
+    @DisplayName("Should bulk upsert users for admin")
+    void shouldBulkUpsertUsersForAdmin() throws Exception {
+        // Given
+        Jwt adminJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "admin-subject")
+                .build();
+
+        UserAccountRequest request = new UserAccountRequest("new-subject", "newuser", "new@example.com", Set.of("ROLE_USER"));
+        when(service.upsertAll(List.of(request))).thenReturn(List.of(testResponse));
+
+        // When/Then
+        mockMvc.perform(post("/users:batch")
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserAccountBatchRequest(List.of(request)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].subject").value("test-subject"));
+
+        verify(service, times(1)).upsertAll(List.of(request));
+    }
+
+    @Test
+    @DisplayName("Should return 403 when user tries to bulk upsert")
+    void shouldReturn403WhenUserTriesToBulkUpsert() throws Exception {
+        UserAccountRequest request = new UserAccountRequest("new-subject", "newuser", "new@example.com", Set.of("ROLE_USER"));
+
+        mockMvc.perform(post("/users:batch")
+                        .with(jwt().jwt(jwt).authorities(new SimpleGrantedAuthority("ROLE_USER")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserAccountBatchRequest(List.of(request)))))
+                .andExpect(status().isForbidden());
+
+        verify(service, never()).upsertAll(any());
+    }
+
+    @Test
+    @DisplayName("Should return 400 for bulk upsert with an invalid entry")
+    void shouldReturn400ForBulkUpsertWithInvalidEntry() throws Exception {
+        Jwt adminJwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .claim("sub", "admin-subject")
+                .build();
+
+        UserAccountRequest valid = new UserAccountRequest("new-subject", "newuser", "new@example.com", Set.of("ROLE_USER"));
+        UserAccountRequest invalid = new UserAccountRequest("", "", "invalid-email", Set.of());
+
+        mockMvc.perform(post("/users:batch")
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UserAccountBatchRequest(List.of(valid, invalid)))))
+                .andExpect(status().isBadRequest());
+
+        verify(service, never()).upsertAll(any());
+    }
+
     @Test
     @DisplayName("Should delete user for admin")
     void shouldDeleteUserForAdmin() throws Exception {
@@ -200,7 +428,7 @@ class UserAccountControllerTest {
 
         // When/Then
         mockMvc.perform(delete("/users/1")
-                        .with(jwt().jwt(adminJwt)))
+                        .with(jwt().jwt(adminJwt).authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
                 .andExpect(status().isNoContent());
 
         verify(service, times(1)).delete(1L);
@@ -123,7 +123,7 @@ app.post('/auth/logout', async (req, res) => {
 app.get('/session/me', ensureAuthenticated, async (req, res) => {
   const accessToken = await ensureFreshToken(req.session as BffSession);
   const response = await fetch(`${GATEWAY_URL}/api/users/me`, {
-    headers: { Authorization: `Bearer ${accessToken}` }
+    headers: { Authorization: `Bearer ${accessToken}`, ...traceHeaders(req) }
   });
   if (!response.ok) {
     return res.status(response.status).json({ error: 'Failed to fetch profile' });
@@ -139,7 +139,8 @@ app.all('/proxy/*', ensureAuthenticated, async (req, res) => {
     method: req.method,
     headers: {
       Authorization: `Bearer ${accessToken}`,
-      'Content-Type': req.headers['content-type'] ?? ''
+      'Content-Type': req.headers['content-type'] ?? '',
+      ...traceHeaders(req)
     },
     body: ['GET', 'HEAD'].includes(req.method) ? undefined : JSON.stringify(req.body)
   });
@@ -192,6 +193,18 @@ async function ensureFreshToken(bffSession: BffSession) {
   return bffSession.tokens.access_token;
 }
 
+// W3C trace context of the caller (e.g. an ingress), so the gateway continues its trace instead of starting one
+function traceHeaders(req: express.Request) {
+  const headers: Record<string, string> = {};
+  for (const name of ['traceparent', 'tracestate']) {
+    const value = req.get(name);
+    if (value) {
+      headers[name] = value;
+    }
+  }
+  return headers;
+}
+
 function generateCodeVerifier() {
   return base64UrlEncode(crypto.randomBytes(32));
 }